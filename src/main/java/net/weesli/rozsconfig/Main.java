@@ -0,0 +1,358 @@
+package net.weesli.rozsconfig;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.weesli.rozsconfig.format.ConfigFormat;
+import net.weesli.rozsconfig.serializer.ConfigMapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Offline profiler for a set of config files.
+ * <p>
+ * Every config file found under the given directory is copied to a scratch directory and run through
+ * load, build and save a number of times; the originals are never written. Files with a config class are
+ * loaded with the defaults of that class (see {@link ConfigMapper#load()}), so the merge additions show how far
+ * the file is behind the class. Files without one are only parsed and written back. Phase timings come from
+ * the {@code net.weesli.rozsconfig} JFR events, allocation from the thread allocation counters.
+ * <pre>
+ * java -cp rozsconfig.jar:app.jar net.weesli.rozsconfig.Main &lt;directory&gt;
+ *     [--class &lt;class&gt;] [--class &lt;file&gt;=&lt;class&gt;] [--iterations &lt;n&gt;] [--warmup &lt;n&gt;]
+ * </pre>
+ *
+ * @author Weesli
+ **/
+public final class Main {
+
+    private static final String USAGE = """
+            Usage: Main <directory> [options]
+              --class <class>         config class bound to every file
+              --class <file>=<class>  config class for one file, relative to the directory
+              --iterations <n>        measured runs per file (default 10)
+              --warmup <n>            unmeasured runs per file before them (default 3)""";
+
+    private static final Set<String> EXTENSIONS = Set.of("yml", "yaml", "json", "rzc");
+
+    private Main() {}
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            new Profiler(options).run();
+        } catch (Exception e) {
+            System.err.println("[RozsConfig] Profiling failed: " + e);
+            System.exit(1);
+        }
+    }
+
+    // ── Options ─────────────────────────────────────────────────────────
+
+    private record Options(Path directory, Class<?> defaultClass, Map<String, Class<?>> classes, int iterations, int warmup) {
+
+        static Options parse(String[] args) {
+            Path directory = null;
+            Class<?> defaultClass = null;
+            Map<String, Class<?>> classes = new HashMap<>();
+            int iterations = 10;
+            int warmup = 3;
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--class" -> {
+                        String value = value(args, ++i, arg);
+                        int eq = value.indexOf('=');
+                        if (eq < 0) {
+                            defaultClass = load(value);
+                        } else {
+                            classes.put(Path.of(value.substring(0, eq)).normalize().toString(), load(value.substring(eq + 1)));
+                        }
+                    }
+                    case "--iterations" -> iterations = count(value(args, ++i, arg), arg, 1);
+                    case "--warmup" -> warmup = count(value(args, ++i, arg), arg, 0);
+                    case "-h", "--help" -> throw new IllegalArgumentException("RozsConfig profiler");
+                    default -> {
+                        if (arg.startsWith("--") || directory != null) throw new IllegalArgumentException("Unexpected argument: " + arg);
+                        directory = Path.of(arg);
+                    }
+                }
+            }
+            if (directory == null) throw new IllegalArgumentException("Missing directory");
+            if (!Files.isDirectory(directory)) throw new IllegalArgumentException("Not a directory: " + directory);
+            return new Options(directory, defaultClass, classes, iterations, warmup);
+        }
+
+        Class<?> classOf(String relative) {
+            return classes.getOrDefault(relative, defaultClass);
+        }
+
+        private static String value(String[] args, int i, String option) {
+            if (i >= args.length) throw new IllegalArgumentException("Missing value for " + option);
+            return args[i];
+        }
+
+        private static int count(String value, String option, int min) {
+            try {
+                int n = Integer.parseInt(value);
+                if (n >= min) return n;
+            } catch (NumberFormatException ignored) {
+            }
+            throw new IllegalArgumentException(option + " must be a number of at least " + min);
+        }
+
+        private static Class<?> load(String name) {
+            try {
+                return Class.forName(name, false, Main.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Config class not found on the class path: " + name);
+            }
+        }
+    }
+
+    // ── Profiling ───────────────────────────────────────────────────────
+
+    private static final class Profiler {
+
+        private final Options options;
+        private final com.sun.management.ThreadMXBean threads = allocationCounter();
+        private final Path scratch;
+        // scratch copy -> measurements of its original
+        private final Map<String, Sample> samples = new LinkedHashMap<>();
+
+        Profiler(Options options) throws IOException {
+            this.options = options;
+            this.scratch = Files.createTempDirectory("rozsconfig-profile");
+        }
+
+        void run() throws Exception {
+            List<Path> files = findFiles();
+            if (files.isEmpty()) {
+                deleteScratch();
+                System.out.println("No config files found in " + options.directory());
+                return;
+            }
+            Recording recording = startRecording();
+            try {
+                for (Path file : files) {
+                    Path relative = options.directory().relativize(file);
+                    Path copy = scratch.resolve(relative);
+                    Files.createDirectories(copy.getParent());
+                    Sample sample = new Sample(relative.toString(), options.classOf(relative.normalize().toString()));
+                    samples.put(copy.toFile().getPath(), sample);
+                    for (int i = 0; i < options.warmup() + options.iterations(); i++) {
+                        boolean measured = i >= options.warmup();
+                        // every run starts from the original, so each one merges the same additions
+                        Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+                        if (sample.configClass != null) {
+                            runMapped(copy, sample, measured);
+                        } else {
+                            runParseOnly(copy, sample, measured);
+                        }
+                    }
+                }
+                if (recording != null) collect(recording);
+            } finally {
+                if (recording != null) recording.close();
+                deleteScratch();
+            }
+            print();
+        }
+
+        private List<Path> findFiles() throws IOException {
+            try (Stream<Path> walk = Files.walk(options.directory())) {
+                return walk.filter(Files::isRegularFile)
+                        .filter(p -> !p.getFileName().toString().startsWith("."))
+                        .filter(p -> EXTENSIONS.contains(extension(p)))
+                        .sorted()
+                        .toList();
+            }
+        }
+
+        private void runMapped(Path copy, Sample sample, boolean measured) {
+            long allocated = allocated();
+            ConfigMapper mapper = ConfigMapper.of(sample.configClass).file(copy.toFile()).load();
+            long loaded = allocated();
+            Object config = mapper.build();
+            long built = allocated();
+            mapper.save(config);
+            long saved = allocated();
+            if (measured) {
+                sample.loadAllocated.add(loaded - allocated);
+                sample.buildAllocated.add(built - loaded);
+                sample.saveAllocated.add(saved - built);
+            }
+        }
+
+        private void runParseOnly(Path copy, Sample sample, boolean measured) throws IOException {
+            ConfigFormat format = ConfigFormat.forFile(copy.toFile());
+            byte[] data = Files.readAllBytes(copy);
+            long allocated = allocated();
+            long start = System.nanoTime();
+            Map<String, Object> tree = format.read(data);
+            long parsed = System.nanoTime();
+            long parseAllocated = allocated();
+            format.write(tree != null ? tree : new LinkedHashMap<>());
+            long saved = System.nanoTime();
+            if (measured) {
+                sample.keys = countKeys(tree, Collections.newSetFromMap(new IdentityHashMap<>()));
+                sample.parse.add(parsed - start);
+                sample.save.add(saved - parsed);
+                sample.buildAllocated.add(parseAllocated - allocated);
+                sample.saveAllocated.add(allocated() - parseAllocated);
+            }
+        }
+
+        private Recording startRecording() {
+            if (!FlightRecorder.isAvailable()) {
+                System.err.println("[RozsConfig] JFR is not available, phase timings are not reported");
+                return null;
+            }
+            Recording recording = new Recording();
+            for (String event : List.of("Load", "Build", "Save")) {
+                recording.enable("net.weesli.rozsconfig." + event).withoutThreshold();
+            }
+            recording.start();
+            return recording;
+        }
+
+        // Warmup runs are recorded too, only the last `iterations` events of every file are kept
+        private void collect(Recording recording) throws IOException {
+            recording.stop();
+            Path dump = scratch.resolve(".profile.jfr");
+            recording.dump(dump);
+            Map<String, List<RecordedEvent>> byFile = new HashMap<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                byFile.computeIfAbsent(event.getEventType().getName() + "|" + event.getString("path"), k -> new ArrayList<>()).add(event);
+            }
+            for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+                Sample sample = entry.getValue();
+                for (RecordedEvent event : last(byFile.get("net.weesli.rozsconfig.Load|" + entry.getKey()))) {
+                    sample.load.add(event.getDuration().toNanos());
+                    sample.additions = event.getInt("mergeAdditions");
+                }
+                for (RecordedEvent event : last(byFile.get("net.weesli.rozsconfig.Build|" + entry.getKey()))) {
+                    sample.keys = event.getInt("keyCount");
+                    sample.parse.add(event.getLong("parseDuration"));
+                    sample.merge.add(event.getLong("mergeDuration"));
+                    sample.bind.add(event.getLong("bindDuration"));
+                }
+                for (RecordedEvent event : last(byFile.get("net.weesli.rozsconfig.Save|" + entry.getKey()))) {
+                    sample.save.add(event.getDuration().toNanos());
+                }
+            }
+        }
+
+        private List<RecordedEvent> last(List<RecordedEvent> events) {
+            if (events == null) return List.of();
+            events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+            return events.subList(Math.max(0, events.size() - options.iterations()), events.size());
+        }
+
+        private void print() {
+            System.out.printf("%d file(s), %d measured run(s) after %d warmup run(s), medians%n%n",
+                    samples.size(), options.iterations(), options.warmup());
+            String header = "%-32s %-24s %7s %5s %10s %10s %10s %10s %10s %11s %11s %11s%n";
+            System.out.printf(header, "file", "class", "keys", "adds", "load ms", "parse ms", "merge ms", "bind ms",
+                    "save ms", "load alloc", "build alloc", "save alloc");
+            for (Sample s : samples.values()) {
+                System.out.printf(header, s.file,
+                        s.configClass != null ? s.configClass.getSimpleName() : "-",
+                        s.keys < 0 ? "-" : Integer.toString(s.keys),
+                        s.additions < 0 ? "-" : Integer.toString(s.additions),
+                        millis(s.load), millis(s.parse), millis(s.merge), millis(s.bind), millis(s.save),
+                        bytes(s.loadAllocated), bytes(s.buildAllocated), bytes(s.saveAllocated));
+            }
+        }
+
+        private long allocated() {
+            return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+        }
+
+        private void deleteScratch() throws IOException {
+            try (Stream<Path> walk = Files.walk(scratch)) {
+                for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static final class Sample {
+        final String file;
+        final Class<?> configClass;
+        int keys = -1;
+        int additions = -1;
+        final List<Long> load = new ArrayList<>();
+        final List<Long> parse = new ArrayList<>();
+        final List<Long> merge = new ArrayList<>();
+        final List<Long> bind = new ArrayList<>();
+        final List<Long> save = new ArrayList<>();
+        final List<Long> loadAllocated = new ArrayList<>();
+        final List<Long> buildAllocated = new ArrayList<>();
+        final List<Long> saveAllocated = new ArrayList<>();
+
+        Sample(String file, Class<?> configClass) {
+            this.file = file;
+            this.configClass = configClass;
+        }
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────────────
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    private static String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int countKeys(Map<String, Object> map, Set<Object> visited) {
+        if (map == null || !visited.add(map)) return 0;
+        int count = 0;
+        for (Object value : map.values()) {
+            count++;
+            if (value instanceof Map) count += countKeys((Map<String, Object>) value, visited);
+        }
+        return count;
+    }
+
+    private static long median(List<Long> values) {
+        if (values.isEmpty()) return -1;
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static String millis(List<Long> nanos) {
+        long median = median(nanos);
+        return median < 0 ? "-" : String.format(Locale.ROOT, "%.3f", median / 1_000_000.0);
+    }
+
+    private static String bytes(List<Long> values) {
+        long median = median(values);
+        if (median < 0) return "-";
+        if (median < 1024) return median + " B";
+        if (median < 1024 * 1024) return String.format(Locale.ROOT, "%.1f KB", median / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MB", median / (1024.0 * 1024));
+    }
+}
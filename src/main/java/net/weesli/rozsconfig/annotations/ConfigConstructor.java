@@ -0,0 +1,18 @@
+package net.weesli.rozsconfig.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the constructor used to bind a config class, so its fields can be {@code final}. Every parameter is
+ * read from the key given by its {@link ConfigKey}, or from the parameter name when the class is compiled with
+ * {@code -parameters}. Records are always bound through their canonical constructor and do not need this.
+ *
+ * @author Weesli
+ **/
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.CONSTRUCTOR)
+public @interface ConfigConstructor {
+}
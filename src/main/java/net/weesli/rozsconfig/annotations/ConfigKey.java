@@ -6,11 +6,13 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 /**
  * If a variable is marked with this class, that field name is mapped to this value in the config.
+ * On a {@link ConfigConstructor} parameter it names the key the argument is read from, on a getter of a
+ * {@link net.weesli.rozsconfig.serializer.ConfigView} interface the key the getter reads.
  *
  * @author Weesli
  **/
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
 public @interface ConfigKey {
     String value();
 }
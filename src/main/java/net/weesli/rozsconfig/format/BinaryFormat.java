@@ -0,0 +1,246 @@
+package net.weesli.rozsconfig.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact tagged binary encoding for machine-generated configs.
+ * <p>
+ * Layout: the {@code RZC1} magic followed by the root map. Every value is a one byte tag and its payload,
+ * integers are zig-zag varints and every string is written once, later occurrences (typically repeated keys)
+ * are encoded as a varint back-reference into the strings seen so far.
+ */
+public final class BinaryFormat implements ConfigFormat {
+
+    static final BinaryFormat INSTANCE = new BinaryFormat();
+
+    private static final byte[] MAGIC = {'R', 'Z', 'C', '1'};
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int STRING_REF = 7;
+    private static final int LIST = 8;
+    private static final int MAP = 9;
+    private static final int BIG_INTEGER = 10;
+    private static final int FLOAT = 11;
+
+    private BinaryFormat() {}
+
+    @Override
+    public String extension() {
+        return "rzc";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> read(byte[] data) throws IOException {
+        if (data.length == 0) return null;
+        if (data.length < MAGIC.length || !Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("[RozsConfig] Not a binary config file");
+        }
+        Decoder decoder = new Decoder(data, MAGIC.length);
+        Object root = decoder.readValue();
+        if (!(root instanceof Map)) throw new IOException("[RozsConfig] Binary config root must be a map");
+        return (Map<String, Object>) root;
+    }
+
+    @Override
+    public byte[] write(Map<String, Object> tree) throws IOException {
+        Encoder encoder = new Encoder();
+        encoder.out.write(MAGIC);
+        encoder.writeValue(tree);
+        return encoder.out.toByteArray();
+    }
+
+    private static final class Encoder {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.write(NULL);
+            } else if (value instanceof Boolean b) {
+                out.write(b ? TRUE : FALSE);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                out.write(INT);
+                writeVarLong(zigZag(((Number) value).longValue()));
+            } else if (value instanceof Long l) {
+                out.write(LONG);
+                writeVarLong(zigZag(l));
+            } else if (value instanceof Float f) {
+                out.write(FLOAT);
+                int bits = Float.floatToRawIntBits(f);
+                for (int i = 24; i >= 0; i -= 8) out.write(bits >>> i);
+            } else if (value instanceof Double) {
+                out.write(DOUBLE);
+                long bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                for (int i = 56; i >= 0; i -= 8) out.write((int) (bits >>> i));
+            } else if (value instanceof BigInteger big) {
+                out.write(BIG_INTEGER);
+                byte[] bytes = big.toByteArray();
+                writeVarLong(bytes.length);
+                out.write(bytes);
+            } else if (value instanceof Map<?, ?> map) {
+                enter(value);
+                out.write(MAP);
+                writeVarLong(map.size());
+                for (Map.Entry<?, ?> e : map.entrySet()) {
+                    writeValue(e.getKey());
+                    writeValue(e.getValue());
+                }
+                path.remove(value);
+            } else if (value instanceof Collection<?> col) {
+                enter(value);
+                out.write(LIST);
+                writeVarLong(col.size());
+                for (Object v : col) writeValue(v);
+                path.remove(value);
+            } else if (value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                out.write(LIST);
+                writeVarLong(length);
+                for (int i = 0; i < length; i++) writeValue(Array.get(value, i));
+            } else if (value instanceof Enum<?> e) {
+                writeString(e.name());
+            } else {
+                writeString(value.toString());
+            }
+        }
+
+        private void enter(Object value) throws IOException {
+            if (!path.add(value)) throw new IOException("[RozsConfig] Binary format can not represent a cyclic reference");
+        }
+
+        private void writeString(String s) throws IOException {
+            Integer ref = strings.get(s);
+            if (ref != null) {
+                out.write(STRING_REF);
+                writeVarLong(ref);
+                return;
+            }
+            strings.put(s, strings.size());
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.write(STRING);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarLong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+        }
+
+        private static long zigZag(long v) {
+            return (v << 1) ^ (v >> 63);
+        }
+    }
+
+    private static final class Decoder {
+        private final byte[] data;
+        private final List<String> strings = new ArrayList<>();
+        private final KeySymbols keys = new KeySymbols();
+        private int pos;
+
+        Decoder(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        Object readValue() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case NULL: return null;
+                case FALSE: return Boolean.FALSE;
+                case TRUE: return Boolean.TRUE;
+                case INT: return (int) unZigZag(readVarLong());
+                case LONG: return unZigZag(readVarLong());
+                case DOUBLE: {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) bits = (bits << 8) | readByte();
+                    return Double.longBitsToDouble(bits);
+                }
+                case FLOAT: {
+                    int bits = 0;
+                    for (int i = 0; i < 4; i++) bits = (bits << 8) | readByte();
+                    return Float.intBitsToFloat(bits);
+                }
+                case BIG_INTEGER: {
+                    int length = readLength();
+                    BigInteger big = new BigInteger(data, pos, length);
+                    pos += length;
+                    return big;
+                }
+                case STRING: {
+                    int length = readLength();
+                    String s = new String(data, pos, length, StandardCharsets.UTF_8);
+                    pos += length;
+                    strings.add(s);
+                    return s;
+                }
+                case STRING_REF: {
+                    long ref = readVarLong();
+                    if (ref < 0 || ref >= strings.size()) throw error("Invalid string reference " + ref);
+                    return strings.get((int) ref);
+                }
+                case LIST: {
+                    int size = readLength();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) list.add(readValue());
+                    return list;
+                }
+                case MAP: {
+                    int size = readLength();
+                    Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                    for (int i = 0; i < size; i++) {
+                        Object key = readValue();
+                        map.put((key instanceof String s) ? keys.intern(s) : key, readValue());
+                    }
+                    return map;
+                }
+                default: throw error("Unknown tag " + tag);
+            }
+        }
+
+        private int readByte() throws IOException {
+            if (pos >= data.length) throw error("Unexpected end of data");
+            return data[pos++] & 0xFF;
+        }
+
+        private int readLength() throws IOException {
+            long length = readVarLong();
+            if (length < 0 || length > data.length - pos) throw error("Invalid length " + length);
+            return (int) length;
+        }
+
+        private long readVarLong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw error("Malformed varint");
+        }
+
+        private static long unZigZag(long v) {
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        private IOException error(String message) {
+            return new IOException("[RozsConfig] Corrupted binary config at offset " + pos + ": " + message);
+        }
+    }
+}
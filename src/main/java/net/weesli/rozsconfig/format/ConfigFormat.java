@@ -0,0 +1,54 @@
+package net.weesli.rozsconfig.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Backend that turns raw file content into the plain tree ({@link Map}s, {@link java.util.List}s and scalars)
+ * that {@link net.weesli.rozsconfig.serializer.ConfigMapper} merges, binds and saves, and back again.
+ * <p>
+ * Implementations must be thread-safe, a single instance is shared by every mapper using it.
+ *
+ * @author Weesli
+ **/
+public interface ConfigFormat {
+
+    /**
+     * @return the file extension used by this format, without the leading dot
+     */
+    String extension();
+
+    /**
+     * Parses the given content into a tree. Empty content must return null or an empty map.
+     */
+    Map<String, Object> read(byte[] data) throws IOException;
+
+    /**
+     * Writes the given tree, the result must be readable by {@link #read(byte[])}.
+     */
+    byte[] write(Map<String, Object> tree) throws IOException;
+
+    static ConfigFormat yaml() {
+        return YamlFormat.INSTANCE;
+    }
+
+    static ConfigFormat json() {
+        return JsonFormat.INSTANCE;
+    }
+
+    static ConfigFormat binary() {
+        return BinaryFormat.INSTANCE;
+    }
+
+    /**
+     * Picks a built-in format from the file extension, falling back to YAML for anything unknown.
+     */
+    static ConfigFormat forFile(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith("." + JsonFormat.INSTANCE.extension())) return json();
+        if (name.endsWith("." + BinaryFormat.INSTANCE.extension())) return binary();
+        return yaml();
+    }
+}
@@ -0,0 +1,300 @@
+package net.weesli.rozsconfig.format;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Dependency-free JSON reader/writer. Objects are read into {@link LinkedHashMap}s so key order survives a
+ * round trip, integral numbers become {@link Integer}, {@link Long} or {@link BigInteger} like SnakeYAML does.
+ */
+public final class JsonFormat implements ConfigFormat {
+
+    static final JsonFormat INSTANCE = new JsonFormat();
+
+    private JsonFormat() {}
+
+    @Override
+    public String extension() {
+        return "json";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> read(byte[] data) throws IOException {
+        Parser parser = new Parser(new String(data, StandardCharsets.UTF_8));
+        parser.skipWhitespace();
+        if (parser.atEnd()) return null;
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) throw parser.error("Unexpected trailing content");
+        if (!(value instanceof Map)) throw new IOException("[RozsConfig] JSON root must be an object");
+        return (Map<String, Object>) value;
+    }
+
+    @Override
+    public byte[] write(Map<String, Object> tree) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        writeValue(sb, tree, 0, Collections.newSetFromMap(new IdentityHashMap<>()));
+        sb.append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ── Writer ──────────────────────────────────────────────────────────
+
+    private static void writeValue(StringBuilder sb, Object value, int indent, Set<Object> path) throws IOException {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Double d && (d.isNaN() || d.isInfinite())
+                || value instanceof Float f && (f.isNaN() || f.isInfinite())) {
+            throw new IOException("[RozsConfig] JSON can not represent " + value);
+        } else if (value instanceof Number) {
+            sb.append(value);
+        } else if (value instanceof Map<?, ?> map) {
+            enter(path, value);
+            if (map.isEmpty()) {
+                sb.append("{}");
+            } else {
+                sb.append("{\n");
+                Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<?, ?> e = it.next();
+                    indent(sb, indent + 2);
+                    writeString(sb, String.valueOf(e.getKey()));
+                    sb.append(": ");
+                    writeValue(sb, e.getValue(), indent + 2, path);
+                    if (it.hasNext()) sb.append(',');
+                    sb.append('\n');
+                }
+                indent(sb, indent).append('}');
+            }
+            path.remove(value);
+        } else if (value instanceof Collection<?> col) {
+            enter(path, value);
+            writeArray(sb, col.iterator(), col.isEmpty(), indent, path);
+            path.remove(value);
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> view = new AbstractList<>() {
+                @Override public Object get(int i) { return Array.get(value, i); }
+                @Override public int size() { return length; }
+            };
+            writeArray(sb, view.iterator(), length == 0, indent, path);
+        } else if (value instanceof Enum<?> e) {
+            writeString(sb, e.name());
+        } else {
+            writeString(sb, value.toString());
+        }
+    }
+
+    private static void writeArray(StringBuilder sb, Iterator<?> it, boolean empty, int indent, Set<Object> path) throws IOException {
+        if (empty) {
+            sb.append("[]");
+            return;
+        }
+        sb.append("[\n");
+        while (it.hasNext()) {
+            indent(sb, indent + 2);
+            writeValue(sb, it.next(), indent + 2, path);
+            if (it.hasNext()) sb.append(',');
+            sb.append('\n');
+        }
+        indent(sb, indent).append(']');
+    }
+
+    private static void enter(Set<Object> path, Object value) throws IOException {
+        if (!path.add(value)) throw new IOException("[RozsConfig] JSON can not represent a cyclic reference");
+    }
+
+    private static void writeString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static StringBuilder indent(StringBuilder sb, int indent) {
+        for (int i = 0; i < indent; i++) sb.append(' ');
+        return sb;
+    }
+
+    // ── Reader ──────────────────────────────────────────────────────────
+
+    private static final class Parser {
+        private final String in;
+        private final KeySymbols keys = new KeySymbols();
+        private int pos;
+
+        Parser(String in) {
+            this.in = in;
+        }
+
+        boolean atEnd() {
+            return pos >= in.length();
+        }
+
+        void skipWhitespace() {
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != '\uFEFF') break;
+                pos++;
+            }
+        }
+
+        Object readValue() throws IOException {
+            skipWhitespace();
+            if (atEnd()) throw error("Unexpected end of input");
+            char c = in.charAt(pos);
+            switch (c) {
+                case '{': return readObject();
+                case '[': return readArray();
+                case '"': return readString();
+                case 't': expect("true"); return Boolean.TRUE;
+                case 'f': expect("false"); return Boolean.FALSE;
+                case 'n': expect("null"); return null;
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) return readNumber();
+                    throw error("Unexpected character '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> readObject() throws IOException {
+            pos++;
+            Map<String, Object> map = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') throw error("Expected object key");
+                String key = keys.intern(readString());
+                skipWhitespace();
+                if (peek() != ':') throw error("Expected ':'");
+                pos++;
+                map.put(key, readValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') return map;
+                if (c != ',') throw error("Expected ',' or '}'");
+            }
+        }
+
+        private List<Object> readArray() throws IOException {
+            pos++;
+            List<Object> list = new ArrayList<>();
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(readValue());
+                skipWhitespace();
+                char c = next();
+                if (c == ']') return list;
+                if (c != ',') throw error("Expected ',' or ']'");
+            }
+        }
+
+        private String readString() throws IOException {
+            pos++;
+            int start = pos;
+            // fast path: no escapes
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (c == '"') return in.substring(start, pos++);
+                if (c == '\\') break;
+                pos++;
+            }
+            StringBuilder sb = new StringBuilder(in.substring(start, pos));
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append(e);
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > in.length()) throw error("Invalid unicode escape");
+                        try {
+                            sb.append((char) Integer.parseInt(in.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("Invalid escape '\\" + e + "'");
+                }
+            }
+        }
+
+        private Object readNumber() throws IOException {
+            int start = pos;
+            boolean decimal = false;
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (c == '.' || c == 'e' || c == 'E') decimal = true;
+                else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) break;
+                pos++;
+            }
+            String number = in.substring(start, pos);
+            try {
+                if (decimal) return Double.parseDouble(number);
+                BigInteger big = new BigInteger(number);
+                if (big.bitLength() < 32) return big.intValue();
+                if (big.bitLength() < 64) return big.longValue();
+                return big;
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + number + "'");
+            }
+        }
+
+        private void expect(String word) throws IOException {
+            if (!in.startsWith(word, pos)) throw error("Expected '" + word + "'");
+            pos += word.length();
+        }
+
+        private char peek() throws IOException {
+            if (atEnd()) throw error("Unexpected end of input");
+            return in.charAt(pos);
+        }
+
+        private char next() throws IOException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        IOException error(String message) {
+            return new IOException("[RozsConfig] Invalid JSON at offset " + pos + ": " + message);
+        }
+    }
+}
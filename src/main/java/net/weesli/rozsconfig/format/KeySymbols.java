@@ -0,0 +1,95 @@
+package net.weesli.rozsconfig.format;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Symbol table for the keys of one parse.
+ * <p>
+ * The same handful of keys ({@code name}, {@code amount}, {@code material}...) repeat across thousands of
+ * entries, so a parser replaces every key it reads by the first instance of that key in the same document,
+ * with its hash already computed. Keys declared by config classes are {@link #register(String) registered}
+ * once, for the life of the JVM; a parsed key that matches one becomes that very instance, the one field
+ * lookups use, so those lookups match by identity. Other keys (player names, UUIDs) only live in the table
+ * of their own parse and are dropped with it.
+ *
+ * @author Weesli
+ **/
+public final class KeySymbols {
+
+    // keys of config classes, bounded by the classes a program declares
+    private static final Map<String, String> SCHEMA = new ConcurrentHashMap<>(256);
+
+    private final Map<String, String> symbols = new HashMap<>();
+
+    /**
+     * Makes {@code key} the canonical instance of its value in every later parse.
+     */
+    public static void register(String key) {
+        SCHEMA.putIfAbsent(key, key);
+    }
+
+    /**
+     * @return the number of registered schema keys
+     */
+    public static int schemaSize() {
+        return SCHEMA.size();
+    }
+
+    /**
+     * @return the canonical instance of {@code key} within this parse
+     */
+    public String intern(String key) {
+        String symbol = symbols.get(key);
+        if (symbol != null) return symbol;
+        // one lookup per distinct key of the document, not per occurrence
+        symbol = SCHEMA.getOrDefault(key, key);
+        symbols.put(symbol, symbol);
+        return symbol;
+    }
+
+    /**
+     * A view of {@code mapping} that interns the string keys put through it, for parsers that fill maps
+     * they do not create themselves (SnakeYAML's constructors).
+     */
+    public Map<Object, Object> interning(Map<Object, Object> mapping) {
+        return new InterningMap(mapping);
+    }
+
+    private final class InterningMap extends AbstractMap<Object, Object> {
+
+        private final Map<Object, Object> mapping;
+
+        InterningMap(Map<Object, Object> mapping) {
+            this.mapping = mapping;
+        }
+
+        @Override
+        public Object put(Object key, Object value) {
+            return mapping.put((key instanceof String s) ? intern(s) : key, value);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return mapping.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return mapping.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return mapping.size();
+        }
+
+        @Override
+        public Set<Entry<Object, Object>> entrySet() {
+            return mapping.entrySet();
+        }
+    }
+}
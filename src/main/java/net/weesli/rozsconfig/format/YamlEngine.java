@@ -0,0 +1,175 @@
+package net.weesli.rozsconfig.format;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Shared factory for SnakeYAML instances.
+ * <p>
+ * {@link Yaml} is not thread-safe, but its options are only read once they are handed over, so an engine builds
+ * its {@link LoaderOptions}/{@link DumperOptions} a single time and lends {@link Yaml} instances on top of them
+ * from a small pool. The pool is not tied to threads, so tasks on short-lived (virtual) threads reuse the same
+ * instances as a long-lived worker would. Documents are constructed with {@link SafeConstructor}, so only plain maps, lists and scalars are
+ * ever created from file content; mapping keys are interned per document through {@link KeySymbols}.
+ *
+ * @author Weesli
+ **/
+public final class YamlEngine {
+
+    /** Large enough for generated files, SnakeYAML's own default stops at 3 MB. */
+    public static final int DEFAULT_CODE_POINT_LIMIT = 64 * 1024 * 1024;
+    public static final int DEFAULT_MAX_ALIASES = 500;
+    public static final int DEFAULT_NESTING_DEPTH = 100;
+
+    // idle instances kept, more can be lent out at once but the surplus is dropped when returned
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final YamlEngine SHARED = builder().build();
+
+    private final LoaderOptions loaderOptions;
+    private final DumperOptions dumperOptions;
+    private final BlockingQueue<Yaml> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private YamlEngine(Builder builder) {
+        loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(builder.codePointLimit);
+        loaderOptions.setMaxAliasesForCollections(builder.maxAliasesForCollections);
+        loaderOptions.setNestingDepthLimit(builder.nestingDepthLimit);
+        loaderOptions.setAllowDuplicateKeys(builder.allowDuplicateKeys);
+        loaderOptions.setProcessComments(false);
+
+        dumperOptions = new DumperOptions();
+        dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    }
+
+    /**
+     * @return the engine used by {@link ConfigFormat#yaml()} and every mapper that does not set its own format
+     */
+    public static YamlEngine shared() {
+        return SHARED;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the options every {@link Yaml} of this engine loads with
+     */
+    public LoaderOptions loaderOptions() {
+        return loaderOptions;
+    }
+
+    /**
+     * Lends a {@link Yaml} instance to the caller alone until it is given back with {@link #release(Yaml)}.
+     */
+    public Yaml acquire() {
+        Yaml yaml = idle.poll();
+        return (yaml != null) ? yaml : create();
+    }
+
+    public void release(Yaml yaml) {
+        idle.offer(yaml);
+    }
+
+    /**
+     * Runs {@code action} with a lent {@link Yaml} instance and gives it back afterwards.
+     */
+    public <R> R apply(Function<? super Yaml, ? extends R> action) {
+        Yaml yaml = acquire();
+        try {
+            return action.apply(yaml);
+        } finally {
+            release(yaml);
+        }
+    }
+
+    private Yaml create() {
+        return new Yaml(new SymbolConstructor(loaderOptions), new Representer(dumperOptions), dumperOptions, loaderOptions);
+    }
+
+    private static final class SymbolConstructor extends SafeConstructor {
+
+        // table of the document being constructed
+        private KeySymbols symbols;
+
+        SymbolConstructor(LoaderOptions loaderOptions) {
+            super(loaderOptions);
+        }
+
+        // the two entry points Yaml constructs a document through
+
+        @Override
+        public Object getSingleData(Class<?> type) {
+            symbols = new KeySymbols();
+            try {
+                return super.getSingleData(type);
+            } finally {
+                symbols = null;
+            }
+        }
+
+        @Override
+        public Object getData() {
+            symbols = new KeySymbols();
+            try {
+                return super.getData();
+            } finally {
+                symbols = null;
+            }
+        }
+
+        @Override
+        protected void constructMapping2ndStep(MappingNode node, Map<Object, Object> mapping) {
+            super.constructMapping2ndStep(node, (symbols != null) ? symbols.interning(mapping) : mapping);
+        }
+    }
+
+    public static final class Builder {
+        private int codePointLimit = DEFAULT_CODE_POINT_LIMIT;
+        private int maxAliasesForCollections = DEFAULT_MAX_ALIASES;
+        private int nestingDepthLimit = DEFAULT_NESTING_DEPTH;
+        private boolean allowDuplicateKeys = true;
+
+        private Builder() {}
+
+        /**
+         * Maximum document size in code points.
+         */
+        public Builder codePointLimit(int codePointLimit) {
+            this.codePointLimit = codePointLimit;
+            return this;
+        }
+
+        /**
+         * Maximum number of aliases to collections, guards against "billion laughs" style documents.
+         */
+        public Builder maxAliasesForCollections(int maxAliasesForCollections) {
+            this.maxAliasesForCollections = maxAliasesForCollections;
+            return this;
+        }
+
+        public Builder nestingDepthLimit(int nestingDepthLimit) {
+            this.nestingDepthLimit = nestingDepthLimit;
+            return this;
+        }
+
+        public Builder allowDuplicateKeys(boolean allowDuplicateKeys) {
+            this.allowDuplicateKeys = allowDuplicateKeys;
+            return this;
+        }
+
+        public YamlEngine build() {
+            return new YamlEngine(this);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package net.weesli.rozsconfig.format;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Default SnakeYAML backed format. Saving through {@link net.weesli.rozsconfig.serializer.ConfigMapper} keeps
+ * {@link net.weesli.rozsconfig.annotations.Comment} text and in-place updates only work with this format.
+ */
+public final class YamlFormat implements ConfigFormat {
+
+    static final YamlFormat INSTANCE = new YamlFormat(YamlEngine.shared());
+
+    private final YamlEngine engine;
+
+    public YamlFormat(YamlEngine engine) {
+        this.engine = engine;
+    }
+
+    public YamlEngine engine() {
+        return engine;
+    }
+
+    @Override
+    public String extension() {
+        return "yml";
+    }
+
+    @Override
+    public Map<String, Object> read(byte[] data) {
+        String document = new String(data, StandardCharsets.UTF_8);
+        return engine.apply(yaml -> yaml.load(document));
+    }
+
+    @Override
+    public byte[] write(Map<String, Object> tree) {
+        return engine.apply(yaml -> yaml.dump(tree)).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package net.weesli.rozsconfig.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted by {@code ConfigMapper.build} and {@code ConfigMapper.buildInto}.
+ */
+@Name("net.weesli.rozsconfig.Build")
+@Label("Config Build")
+@Category({"RozsConfig"})
+@Description("Config file read, merged and bound to an object")
+@Enabled(false)
+@StackTrace(false)
+public final class ConfigBuildEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Config Class")
+    public Class<?> configClass;
+
+    @Label("Rebind")
+    @Description("True when an existing instance was updated in place")
+    public boolean rebind;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+
+    @Label("Key Count")
+    public int keyCount;
+
+    @Label("Merge Additions")
+    public int mergeAdditions;
+
+    @Label("Read Duration")
+    @Timespan
+    public long readDuration;
+
+    @Label("Parse Duration")
+    @Timespan
+    public long parseDuration;
+
+    @Label("Merge Duration")
+    @Timespan
+    public long mergeDuration;
+
+    @Label("Bind Duration")
+    @Timespan
+    public long bindDuration;
+}
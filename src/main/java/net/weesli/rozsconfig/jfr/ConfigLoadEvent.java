@@ -0,0 +1,43 @@
+package net.weesli.rozsconfig.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted by {@code ConfigMapper.load}: merging the bundled defaults into the file on disk.
+ */
+@Name("net.weesli.rozsconfig.Load")
+@Label("Config Load")
+@Category({"RozsConfig"})
+@Description("Defaults merged into a config file")
+@Enabled(false)
+@StackTrace(false)
+public final class ConfigLoadEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Config Class")
+    public Class<?> configClass;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Key Count")
+    public int keyCount;
+
+    @Label("Merge Additions")
+    public int mergeAdditions;
+
+    @Label("Parse Duration")
+    @Timespan
+    public long parseDuration;
+
+    @Label("Merge Duration")
+    @Timespan
+    public long mergeDuration;
+}
@@ -0,0 +1,33 @@
+package net.weesli.rozsconfig.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted by {@code ConfigMapper.save}.
+ */
+@Name("net.weesli.rozsconfig.Save")
+@Label("Config Save")
+@Category({"RozsConfig"})
+@Description("Config object written to its file")
+@Enabled(false)
+@StackTrace(false)
+public final class ConfigSaveEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Config Class")
+    public Class<?> configClass;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Render Duration")
+    @Timespan
+    public long renderDuration;
+
+    @Label("Write Duration")
+    @Timespan
+    public long writeDuration;
+}
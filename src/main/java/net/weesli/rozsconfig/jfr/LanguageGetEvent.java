@@ -0,0 +1,24 @@
+package net.weesli.rozsconfig.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted by {@code LanguageConfig.get}.
+ */
+@Name("net.weesli.rozsconfig.LanguageGet")
+@Label("Language Get")
+@Category({"RozsConfig"})
+@Description("Locale object looked up, and built on a cache miss")
+@Enabled(false)
+@StackTrace(false)
+public final class LanguageGetEvent extends Event {
+
+    @Label("Language Key")
+    public String languageKey;
+
+    @Label("Config Class")
+    public Class<?> configClass;
+
+    @Label("Cache Hit")
+    public boolean hit;
+}
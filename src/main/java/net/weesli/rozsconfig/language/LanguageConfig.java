@@ -1,46 +1,331 @@
 package net.weesli.rozsconfig.language;
 
+import net.weesli.rozsconfig.format.ConfigFormat;
+import net.weesli.rozsconfig.jfr.LanguageGetEvent;
 import net.weesli.rozsconfig.serializer.ConfigMapper;
+import net.weesli.rozsconfig.serializer.RetentionMode;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
 public class LanguageConfig<T> {
 
     private final Map<String, ConfigMapper> languageMap = new HashMap<>();
-    private final Map<String, T> objects = new HashMap<>();
+    private final Map<String, File> files = new HashMap<>();
+    private final Map<String, MessagePack> packs = new ConcurrentHashMap<>();
+    // locales whose mapper exists but has not been loaded from its resource yet
+    private final Map<String, LocaleResources> unloaded = new ConcurrentHashMap<>();
+    // access ordered, so the eldest entry is always the least recently used locale
+    private final LinkedHashMap<String, T> objects = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+            if (size() <= cacheCapacity) return false;
+            evicted(eldest.getKey(), eldest.getValue());
+            return true;
+        }
+    };
+    private int cacheCapacity = Integer.MAX_VALUE;
+    private boolean saveOnEviction;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     public LanguageConfig(List<String> languageKeys, Path path, String configName, Map<String, InputStream> defaultConfig, Class<T> clazz) {
+        this(languageKeys, path, configName, defaultConfig, clazz, ConfigFormat.yaml());
+    }
+
+    public LanguageConfig(List<String> languageKeys, Path path, String configName, Map<String, InputStream> defaultConfig, Class<T> clazz, ConfigFormat format) {
         for (String languageKey : languageKeys) {
+            File file = localeFile(path, languageKey, configName, format);
             ConfigMapper mapper = ConfigMapper.of(clazz)
-                    .file(path.resolve(languageKey).resolve(configName + ".yml").toFile())
+                    .format(format)
+                    .file(file)
                     .load(defaultConfig.get(languageKey));
             languageMap.put(languageKey, mapper);
+            files.put(languageKey, file);
+        }
+    }
+
+    public LanguageConfig(List<String> languageKeys, Path path, String configName, LocaleResources defaultConfig, Class<T> clazz) {
+        this(languageKeys, path, configName, defaultConfig, clazz, ConfigFormat.yaml());
+    }
+
+    /**
+     * Creates the locales without touching their resources: a locale's default resource is opened, read and
+     * closed when the locale is first used ({@link #get(String)}, {@link #message(String, String)},
+     * {@link #reload(String)}...). Locales that are never used never read their resource.
+     */
+    public LanguageConfig(List<String> languageKeys, Path path, String configName, LocaleResources defaultConfig, Class<T> clazz, ConfigFormat format) {
+        Objects.requireNonNull(defaultConfig, "defaultConfig");
+        for (String languageKey : languageKeys) {
+            File file = localeFile(path, languageKey, configName, format);
+            ConfigMapper mapper = ConfigMapper.of(clazz)
+                    .format(format)
+                    .file(file);
+            languageMap.put(languageKey, mapper);
+            files.put(languageKey, file);
+            unloaded.put(languageKey, defaultConfig);
         }
     }
 
-    public T get(String languageKey ){
-        if (objects.containsKey(languageKey)) return objects.get(languageKey);
-        T object = languageMap.get(languageKey).build();
-        objects.put(languageKey, object);
+    public LanguageConfig(List<String> languageKeys, Path path, String configName, Class<T> clazz) {
+        this(languageKeys, path, configName, clazz, ConfigFormat.yaml());
+    }
+
+    /**
+     * Creates the locales without bundled resources, every locale starts from the field initializers of
+     * {@code clazz} (see {@link ConfigMapper#load()}) and is translated on disk.
+     */
+    public LanguageConfig(List<String> languageKeys, Path path, String configName, Class<T> clazz, ConfigFormat format) {
+        for (String languageKey : languageKeys) {
+            File file = localeFile(path, languageKey, configName, format);
+            ConfigMapper mapper = ConfigMapper.of(clazz)
+                    .format(format)
+                    .file(file)
+                    .load();
+            languageMap.put(languageKey, mapper);
+            files.put(languageKey, file);
+        }
+    }
+
+    // the locale's mapper, loaded from its resource on first use
+    private ConfigMapper mapper(String languageKey) {
+        ConfigMapper mapper = languageMap.get(languageKey);
+        if (mapper == null) throw new RuntimeException("[RozsConfig] Unknown language '" + languageKey + "'");
+        if (unloaded.containsKey(languageKey)) {
+            synchronized (mapper) {
+                LocaleResources resources = unloaded.get(languageKey);
+                if (resources != null) {
+                    try (InputStream in = resources.open(languageKey)) {
+                        mapper.load(in);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    unloaded.remove(languageKey);
+                }
+            }
+        }
+        return mapper;
+    }
+
+    private static File localeFile(Path path, String languageKey, String configName, ConfigFormat format) {
+        return path.resolve(languageKey).resolve(configName + "." + format.extension()).toFile();
+    }
+
+    /**
+     * Limits how many built locale objects are kept at once. When the limit is exceeded the least recently
+     * used locale is dropped and transparently rebuilt from its file on the next {@link #get(String)}. Unbounded
+     * by default.
+     * <p>
+     * An evicted object is detached: unsaved changes to it are lost (unless {@link #saveOnEviction(boolean)} is
+     * set), later {@link #reload(String)} and {@link #save(String)} calls no longer see it, and the next
+     * {@link #get(String)} returns a new instance. Callers that keep references to locale objects should leave
+     * the cache unbounded.
+     */
+    public synchronized LanguageConfig<T> cacheCapacity(int cacheCapacity) {
+        if (cacheCapacity < 1) throw new IllegalArgumentException("cacheCapacity must be at least 1");
+        this.cacheCapacity = cacheCapacity;
+        Iterator<Map.Entry<String, T>> eldest = objects.entrySet().iterator();
+        while (objects.size() > cacheCapacity) {
+            Map.Entry<String, T> entry = eldest.next();
+            evicted(entry.getKey(), entry.getValue());
+            eldest.remove();
+        }
+        return this;
+    }
+
+    /**
+     * Saves a locale's object to its file before it is evicted by {@link #cacheCapacity(int)}, so changes made to
+     * it are not lost. Off by default, as most locale objects are never modified.
+     */
+    public synchronized LanguageConfig<T> saveOnEviction(boolean saveOnEviction) {
+        this.saveOnEviction = saveOnEviction;
+        return this;
+    }
+
+    private void evicted(String languageKey, T object) {
+        evictions.increment();
+        if (saveOnEviction) {
+            mapper(languageKey).save(object);
+            packs.remove(languageKey);
+        }
+    }
+
+    /**
+     * @return the locale's object, built on first use and cached. The same instance is returned until it is
+     * evicted, see {@link #cacheCapacity(int)}.
+     */
+    public synchronized T get(String languageKey ){
+        LanguageGetEvent event = new LanguageGetEvent();
+        event.begin();
+        T object = objects.get(languageKey);
+        boolean hit = object != null;
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+            object = mapper(languageKey).build();
+            objects.put(languageKey, object);
+        }
+        if (event.shouldCommit()) {
+            event.languageKey = languageKey;
+            event.configClass = object.getClass();
+            event.hit = hit;
+            event.commit();
+        }
         return object;
     }
 
-    public void save(String languageKey){
-        languageMap.get(languageKey)
-                .save(objects.get(languageKey));
+    /**
+     * Looks a message up without building the locale's object. The locale is compiled into a memory-mapped
+     * {@link MessagePack} next to its file ({@code <configName>.<digest>.pack}) on first use and after
+     * {@link #reload(String)} or {@link #save(String)} if anything it is built from has changed (see
+     * {@link ConfigMapper#sourceDigest()}), so messages are decoded on demand and the heap does not
+     * grow with the number of locales. Combine with {@link #retention(RetentionMode)} {@code NONE} to keep no parsed tree either.
+     *
+     * @param key dotted path of the message, e.g. {@code errors.not-found}
+     * @return the message, or null if the locale has none under that key
+     */
+    public String message(String languageKey, String key) {
+        return pack(languageKey).get(key);
+    }
+
+    private MessagePack pack(String languageKey) {
+        MessagePack pack = packs.get(languageKey);
+        // compiled once even when several threads ask for the same locale
+        return (pack != null) ? pack : packs.computeIfAbsent(languageKey, this::openPack);
+    }
+
+    private MessagePack openPack(String languageKey) {
+        ConfigMapper mapper = mapper(languageKey);
+        Path source = files.get(languageKey).toPath();
+        String name = source.getFileName().toString();
+        String base = name.substring(0, name.lastIndexOf('.'));
+        try {
+            // named after the digest, so a changed locale never overwrites a pack that may still be mapped
+            byte[] digest = mapper.sourceDigest();
+            Path packFile = source.resolveSibling(base + "." + HexFormat.of().formatHex(digest, 0, 8) + ".pack");
+            if (Files.isRegularFile(packFile)) {
+                MessagePack pack = MessagePack.open(packFile);
+                if (pack.isCompiledFrom(digest)) return pack;
+            }
+            MessagePack.compile(mapper.buildTree(), digest, packFile);
+            MessagePack pack = MessagePack.open(packFile);
+            deleteStalePacks(source.getParent(), base, packFile);
+            return pack;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // best effort, a pack that is still mapped (Windows) is left for the next compile to remove
+    private static void deleteStalePacks(Path directory, String base, Path current) {
+        try (DirectoryStream<Path> packs = Files.newDirectoryStream(directory, p -> p.getFileName().toString().startsWith(base + "."))) {
+            for (Path pack : packs) {
+                String name = pack.getFileName().toString();
+                boolean ours = name.equals(base + ".pack") || name.matches(Pattern.quote(base) + "\\.[0-9a-f]{16}\\.pack");
+                if (!ours || pack.equals(current)) continue;
+                try {
+                    Files.deleteIfExists(pack);
+                } catch (IOException ignored) {
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * @return true if the locale's object is currently built and cached
+     */
+    public synchronized boolean isResident(String languageKey) {
+        return objects.containsKey(languageKey);
+    }
+
+    public CacheStats getCacheStats() {
+        int resident;
+        synchronized (this) {
+            resident = objects.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), resident);
+    }
+
+    /**
+     * Counters of the locale object cache, see {@link #cacheCapacity(int)}.
+     */
+    public record CacheStats(long hits, long misses, long evictions, int resident) {}
+
+    /**
+     * Reloads a locale from disk. An object that is still cached is updated in place (see
+     * {@link ConfigMapper#buildInto(Object)}), so references handed out by {@link #get(String)} stay valid. An
+     * evicted object is not: the locale is built again as a new instance and older references keep their
+     * previous values, see {@link #cacheCapacity(int)}.
+     */
+    public synchronized T reload(String languageKey) {
+        packs.remove(languageKey);
+        T object = objects.get(languageKey);
+        if (object == null) return get(languageKey);
+        ConfigMapper mapper = mapper(languageKey);
+        try {
+            return mapper.buildInto(object);
+        } catch (UnsupportedOperationException immutable) {
+            T rebuilt = mapper.build();
+            objects.put(languageKey, rebuilt);
+            return rebuilt;
+        }
+    }
+
+    /**
+     * Reloads every locale that is currently cached, evicted locales are read fresh on their next get anyway.
+     */
+    public synchronized void reloadAll() {
+        for (String languageKey : new ArrayList<>(objects.keySet())) {
+            reload(languageKey);
+        }
+    }
+
+    /**
+     * Saves the locale's cached object, does nothing if the locale is not built or has been evicted.
+     */
+    public synchronized void save(String languageKey){
+        T object = objects.get(languageKey);
+        if (object == null) return;
+        mapper(languageKey).save(object);
+        packs.remove(languageKey);
+    }
+
+    /**
+     * Applies the given {@link RetentionMode} to every locale's mapper.
+     */
+    public LanguageConfig<T> retention(RetentionMode retention) {
+        for (ConfigMapper mapper : languageMap.values()) {
+            mapper.retention(retention);
+        }
+        return this;
+    }
+
+    /**
+     * @return the estimated heap retained by the given locale's mapper, see {@link ConfigMapper#retainedBytes()}
+     */
+    public long retainedBytes(String languageKey) {
+        ConfigMapper mapper = languageMap.get(languageKey);
+        return mapper != null ? mapper.retainedBytes() : 0;
     }
 
     public List<String> getLanguageKeys() {
         return languageMap.keySet().stream().toList();
     }
 
-    public void saveAll() {
-        for (String languageKey : languageMap.keySet()) {
+    public synchronized void saveAll() {
+        for (String languageKey : new ArrayList<>(objects.keySet())) {
             save(languageKey);
         }
     }
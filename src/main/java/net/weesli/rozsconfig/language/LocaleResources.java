@@ -0,0 +1,63 @@
+package net.weesli.rozsconfig.language;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bundled default resources of a {@link LanguageConfig}, opened one locale at a time when that locale is first
+ * loaded instead of all up front.
+ *
+ * @author Weesli
+ **/
+@FunctionalInterface
+public interface LocaleResources {
+
+    /**
+     * Placeholder replaced by the language key in the patterns of {@link #classpath(Class, String)} and
+     * {@link #directory(Path, String)}.
+     */
+    String LANGUAGE = "{lang}";
+
+    /**
+     * @return a new stream over the locale's defaults, closed by the caller, or null if the locale has none
+     */
+    InputStream open(String languageKey) throws IOException;
+
+    /**
+     * Resources of the jar {@code anchor} was loaded from, e.g. {@code classpath(MyPlugin.class, "/lang/{lang}.yml")}.
+     * Relative names are resolved against the package of {@code anchor}, as by {@link Class#getResourceAsStream(String)}.
+     */
+    static LocaleResources classpath(Class<?> anchor, String pattern) {
+        Objects.requireNonNull(anchor, "anchor");
+        Objects.requireNonNull(pattern, "pattern");
+        return languageKey -> anchor.getResourceAsStream(pattern.replace(LANGUAGE, languageKey));
+    }
+
+    /**
+     * Files under {@code directory}, e.g. {@code directory(defaults, "{lang}/messages.yml")}.
+     */
+    static LocaleResources directory(Path directory, String pattern) {
+        Objects.requireNonNull(directory, "directory");
+        Objects.requireNonNull(pattern, "pattern");
+        return languageKey -> {
+            Path file = directory.resolve(pattern.replace(LANGUAGE, languageKey));
+            return Files.isRegularFile(file) ? Files.newInputStream(file) : null;
+        };
+    }
+
+    /**
+     * One supplier per locale, each called only when its locale is loaded.
+     */
+    static LocaleResources of(Map<String, ? extends Supplier<? extends InputStream>> suppliers) {
+        Objects.requireNonNull(suppliers, "suppliers");
+        return languageKey -> {
+            Supplier<? extends InputStream> supplier = suppliers.get(languageKey);
+            return (supplier != null) ? supplier.get() : null;
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package net.weesli.rozsconfig.language;
+
+import net.weesli.rozsconfig.serializer.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compiled message table of one locale, memory-mapped so the messages never live on the heap, see
+ * {@link LanguageConfig#message(String, String)}.
+ * <p>
+ * Layout (big endian): the {@code RZM2} magic, the SHA-256 digest of the inputs the pack was compiled from (see
+ * {@link net.weesli.rozsconfig.serializer.ConfigMapper#sourceDigest()}), the slot count (a power of two) and the
+ * message count; then an open-addressing index of
+ * {@code (hash, offset)} slots and the entries, each a length-prefixed UTF-8 key followed by a length-prefixed
+ * UTF-8 message. A lookup probes the index and decodes only the message it returns. Lookups may run
+ * concurrently.
+ *
+ * @author Weesli
+ **/
+public final class MessagePack {
+
+    private static final byte[] MAGIC = {'R', 'Z', 'M', '2'};
+    private static final int DIGEST = 32;
+    private static final int HEADER = MAGIC.length + DIGEST + 4 + 4;
+    private static final int SLOT = 8;
+
+    private final ByteBuffer buffer;
+    private final int mask;
+    private final int size;
+
+    private MessagePack(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER) throw new IOException("[RozsConfig] Not a message pack");
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) throw new IOException("[RozsConfig] Not a message pack");
+        }
+        this.buffer = buffer;
+        int slots = buffer.getInt(MAGIC.length + DIGEST);
+        this.size = buffer.getInt(MAGIC.length + DIGEST + 4);
+        if (Integer.bitCount(slots) != 1 || (long) HEADER + (long) slots * SLOT > buffer.limit()) {
+            throw new IOException("[RozsConfig] Corrupted message pack");
+        }
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Maps a compiled pack, the file must not be modified while the pack is in use.
+     */
+    public static MessagePack open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) throw new IOException("[RozsConfig] Message pack too large: " + file);
+            return new MessagePack(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        }
+    }
+
+    /**
+     * Compiles every message of a config tree into {@code target}. Nested sections become dotted keys
+     * ({@code errors.not-found}), lists of values are joined with line breaks, other values are stored as text.
+     */
+    public static void compile(Map<String, Object> tree, Path target) throws IOException {
+        compile(tree, new byte[DIGEST], target);
+    }
+
+    /**
+     * @param sourceDigest digest of the inputs {@code tree} was built from, see {@link #isCompiledFrom(byte[])}
+     */
+    static void compile(Map<String, Object> tree, byte[] sourceDigest, Path target) throws IOException {
+        if (sourceDigest.length != DIGEST) throw new IllegalArgumentException("sourceDigest must be a SHA-256 digest");
+        Map<String, String> messages = new LinkedHashMap<>();
+        flatten("", tree, messages);
+
+        int slots = Integer.highestOneBit(Math.max(2, messages.size() * 2 - 1)) << 1;
+        List<byte[]> keys = new ArrayList<>(messages.size());
+        List<byte[]> values = new ArrayList<>(messages.size());
+        long length = HEADER + (long) slots * SLOT;
+        for (Map.Entry<String, String> e : messages.entrySet()) {
+            byte[] key = e.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = e.getValue().getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            values.add(value);
+            length += 8L + key.length + value.length;
+        }
+        if (length > Integer.MAX_VALUE) throw new IOException("[RozsConfig] Too many messages for one pack");
+
+        ByteBuffer out = ByteBuffer.allocate((int) length);
+        out.put(MAGIC).put(sourceDigest).putInt(slots).putInt(messages.size());
+        int offset = HEADER + slots * SLOT;
+        int i = 0;
+        for (String key : messages.keySet()) {
+            int slot = hash(key) & (slots - 1);
+            while (out.getInt(HEADER + slot * SLOT + 4) != 0) slot = (slot + 1) & (slots - 1);
+            out.putInt(HEADER + slot * SLOT, hash(key)).putInt(HEADER + slot * SLOT + 4, offset);
+
+            out.position(offset);
+            out.putInt(keys.get(i).length).put(keys.get(i)).putInt(values.get(i).length).put(values.get(i));
+            offset = out.position();
+            i++;
+        }
+        AtomicFiles.write(target, out.array());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void flatten(String prefix, Object value, Map<String, String> out) {
+        if (value == null) return;
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                flatten(prefix.isEmpty() ? String.valueOf(e.getKey()) : prefix + "." + e.getKey(), e.getValue(), out);
+            }
+        } else if (value instanceof List<?> list) {
+            boolean values = list.stream().noneMatch(v -> v instanceof Map || v instanceof List);
+            if (values) {
+                StringJoiner joined = new StringJoiner("\n");
+                for (Object v : list) joined.add(String.valueOf(v));
+                out.put(prefix, joined.toString());
+            } else {
+                for (int i = 0; i < list.size(); i++) flatten(prefix + "." + i, list.get(i), out);
+            }
+        } else if (!prefix.isEmpty()) {
+            out.put(prefix, String.valueOf(value));
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the message stored under {@code key}, or null if there is none
+     */
+    public String get(String key) {
+        int hash = hash(key);
+        int slot = hash & mask;
+        while (true) {
+            int base = HEADER + slot * SLOT;
+            int offset = buffer.getInt(base + 4);
+            if (offset == 0) return null;
+            if (buffer.getInt(base) == hash && keyEquals(offset, key)) {
+                int keyLength = buffer.getInt(offset);
+                int valueAt = offset + 4 + keyLength;
+                byte[] value = new byte[buffer.getInt(valueAt)];
+                buffer.get(valueAt + 4, value);
+                return new String(value, StandardCharsets.UTF_8);
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the number of messages in the pack
+     */
+    public int size() {
+        return size;
+    }
+
+    // ASCII keys are compared in place, anything else is encoded once
+    private boolean keyEquals(int offset, String key) {
+        int length = buffer.getInt(offset);
+        int at = offset + 4;
+        if (length == key.length()) {
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                char c = key.charAt(i);
+                if (c >= 0x80) {
+                    ascii = false;
+                    break;
+                }
+                if (buffer.get(at + i) != c) return false;
+            }
+            if (ascii) return true;
+        }
+        byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(at + i) != encoded[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the pack was compiled from inputs with this digest
+     */
+    boolean isCompiledFrom(byte[] sourceDigest) {
+        if (sourceDigest.length != DIGEST) return false;
+        for (int i = 0; i < DIGEST; i++) {
+            if (buffer.get(MAGIC.length + i) != sourceDigest[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package net.weesli.rozsconfig.serializer;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces files in one step: the content goes to a sibling temporary file that is then moved over the target,
+ * so a crash never leaves a half written config behind.
+ * <p>
+ * The replacement looks like the file it replaces: a symlinked target is followed and the file it points to is
+ * replaced, the link stays; an existing file keeps its POSIX permissions (and group when the process may set
+ * it); a new file gets the permissions the umask gives any other new file.
+ *
+ * @author Weesli
+ **/
+public final class AtomicFiles {
+
+    // links followed before giving up, the same limit most platforms apply
+    private static final int MAX_LINKS = 40;
+
+    private AtomicFiles() {}
+
+    public static void write(Path target, byte[] content) throws IOException {
+        Path real = resolve(target);
+        Path temp = createSibling(real);
+        try {
+            // before the content, so a private file is never readable through its replacement
+            if (Files.exists(real)) copyAttributes(real, temp);
+            Files.write(temp, content);
+            try {
+                Files.move(temp, real, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, real, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // the file the path ends up at, dangling links included
+    private static Path resolve(Path target) throws IOException {
+        Path current = target.toAbsolutePath();
+        if (Files.exists(current)) return current.toRealPath();
+        for (int i = 0; i < MAX_LINKS && Files.isSymbolicLink(current); i++) {
+            current = current.resolveSibling(Files.readSymbolicLink(current)).normalize();
+        }
+        if (Files.isSymbolicLink(current)) throw new FileSystemException(target.toString(), null, "Too many levels of symbolic links");
+        return current;
+    }
+
+    // unlike Files.createTempFile (always 0600 on POSIX) a plain createFile applies the umask
+    private static Path createSibling(Path real) throws IOException {
+        while (true) {
+            String suffix = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+            Path temp = real.resolveSibling("." + real.getFileName() + "." + suffix + ".tmp");
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException ignored) {
+                // taken, try another name
+            }
+        }
+    }
+
+    private static void copyAttributes(Path from, Path to) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(to, PosixFileAttributeView.class);
+        if (view == null) return;
+        PosixFileAttributes attributes = Files.readAttributes(from, PosixFileAttributes.class);
+        view.setPermissions(attributes.permissions());
+        try {
+            view.setGroup(attributes.group());
+        } catch (IOException ignored) {
+            // only the owner's groups may be set, the file then keeps the default group
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package net.weesli.rozsconfig.serializer;
+
+import java.util.*;
+
+/**
+ * Immutable, insertion ordered map backed by two flat arrays, used for retained trees. Small maps are searched
+ * linearly, larger ones get an open-addressing index. The hash code is cached so identical subtrees can be
+ * deduplicated cheaply.
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+
+    private static final int LINEAR_LIMIT = 8;
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] index;
+    private int hash;
+
+    CompactMap(Object[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        if (keys.length > LINEAR_LIMIT) {
+            int[] table = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+            Arrays.fill(table, -1);
+            int mask = table.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                int slot = spread(keys[i]) & mask;
+                while (table[slot] != -1) slot = (slot + 1) & mask;
+                table[slot] = i;
+            }
+            this.index = table;
+        } else {
+            this.index = null;
+        }
+    }
+
+    private static int spread(Object key) {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(Object key) {
+        if (index == null) {
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.equals(keys[i], key)) return i;
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        int slot = spread(key) & mask;
+        int i;
+        while ((i = index[slot]) != -1) {
+            if (Objects.equals(keys[i], key)) return i;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int i = indexOf(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && keys.length > 0) {
+            for (int i = 0; i < keys.length; i++) h += Objects.hashCode(keys[i]) ^ Objects.hashCode(values[i]);
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int i;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<String, Object> next() {
+                        if (i >= keys.length) throw new NoSuchElementException();
+                        // YAML keys are not always strings, same unchecked view as the parsed maps
+                        Entry<?, Object> entry = new SimpleImmutableEntry<>(keys[i], values[i]);
+                        i++;
+                        return (Entry<String, Object>) entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    int footprint() {
+        return 32 + 16 + 4 * keys.length + 16 + 4 * values.length + (index != null ? 16 + 4 * index.length : 0);
+    }
+}
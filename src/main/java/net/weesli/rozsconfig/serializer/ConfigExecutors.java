@@ -0,0 +1,44 @@
+package net.weesli.rozsconfig.serializer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used by the asynchronous {@link ConfigMapper} API.
+ *
+ * @author Weesli
+ **/
+public final class ConfigExecutors {
+
+    private ConfigExecutors() {}
+
+    /**
+     * @return the shared default executor: a virtual-thread-per-task executor on Java 21+, otherwise a cached
+     * pool of daemon threads, since config work is mostly blocking file I/O
+     */
+    public static Executor defaultExecutor() {
+        return Holder.DEFAULT;
+    }
+
+    private static final class Holder {
+        static final Executor DEFAULT = create();
+
+        private static Executor create() {
+            try {
+                // looked up reflectively so the library keeps compiling against Java 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                AtomicInteger counter = new AtomicInteger();
+                ThreadFactory factory = runnable -> {
+                    Thread thread = new Thread(runnable, "RozsConfig-io-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+                return Executors.newCachedThreadPool(factory);
+            }
+        }
+    }
+}
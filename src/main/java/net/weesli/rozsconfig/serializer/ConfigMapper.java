@@ -1,48 +1,202 @@
 package net.weesli.rozsconfig.serializer;
 
 import net.weesli.rozsconfig.annotations.IgnoreField;
+import net.weesli.rozsconfig.format.ConfigFormat;
+import net.weesli.rozsconfig.format.YamlEngine;
+import net.weesli.rozsconfig.format.YamlFormat;
+import net.weesli.rozsconfig.jfr.ConfigBuildEvent;
+import net.weesli.rozsconfig.jfr.ConfigLoadEvent;
+import net.weesli.rozsconfig.jfr.ConfigSaveEvent;
 import net.weesli.rozsconfig.language.LanguageConfig;
+import net.weesli.rozsconfig.language.LocaleResources;
 import net.weesli.rozsconfig.serializer.component.ObjectSerializer;
-import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Loads, binds and saves a config class.
+ * <p>
+ * Once configured, a mapper can be shared between threads: {@link #build()} and {@link #save(Object)} only
+ * work on per-call state, the loaded defaults are replaced as a whole (copy-on-write) and never mutated after
+ * they are published, and every file write goes through a temporary file that is atomically moved over the
+ * config, so a concurrent {@link #build()} always reads a complete document.
+ */
 public final class ConfigMapper {
 
-    private final Yaml yaml;
-    private Class<?> clazz;
-    private File file;
-    private Map<String, Object> defaultValues = new HashMap<>();
-    private Map<String, Object> currentValues = new HashMap<>();
-    private final List<ObjectSerializer<?>> serializers = new ArrayList<>();
+    private volatile ConfigFormat format = ConfigFormat.yaml();
+    private volatile boolean explicitFormat;
+    private static final Pattern ENV_REFERENCE = Pattern.compile("\\$\\{env:([^}:]+)");
+
+    private volatile Class<?> clazz;
+    private volatile File file;
+    private volatile Map<String, Object> defaultValues = Collections.emptyMap();
+    // digest of the inputs defaultValues was read from, and the environment variables they refer to
+    private volatile byte[] defaultsDigest = new byte[0];
+    private volatile Set<String> defaultsEnv = Set.of();
+    private final List<ObjectSerializer<?>> serializers = new CopyOnWriteArrayList<>();
+    private volatile boolean preserveFormatting = true;
+    private volatile boolean mergeChecksum;
+    private volatile RetentionMode retention = RetentionMode.FULL;
+    // null until set, the async methods then fall back to the shared default
+    private volatile Executor executor;
+    private volatile int parallelThreshold;
+    private volatile ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private volatile boolean fragments;
+    private volatile boolean interpolate;
+    private volatile FragmentStore fragmentStore;
+    // fragment trees bound by the last build, a rebind into the same object skips the sections still holding them
+    private volatile BoundSections boundSections;
+    // serializes writers of the file (load write-back and save), readers never take it
+    private final Object writeLock = new Object();
 
     public ConfigMapper() {
-        DumperOptions options = new DumperOptions();
-        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        yaml = new Yaml(options);
     }
 
     public static ConfigMapper of(Class<?> clazz) {
         ConfigMapper mapper = new ConfigMapper();
         mapper.clazz = clazz;
+        TypeUtils.registerKeys(clazz);
         return mapper;
     }
 
+    /**
+     * When enabled (the default), keys that are missing on disk are inserted into the existing file text and
+     * everything else, including user comments, is left untouched. When disabled, or when the file layout can
+     * not be patched safely, the merged tree is dumped over the whole file.
+     */
+    public ConfigMapper preserveFormatting(boolean preserveFormatting) {
+        this.preserveFormatting = preserveFormatting;
+        return this;
+    }
+
+    /**
+     * When enabled, {@link #load(InputStream)} keeps a small sidecar next to the file ({@code .<name>.sum}) with
+     * checksums of the default resource and of the file as the last merge left it. While neither changes, the
+     * resource is not parsed and the merge is skipped, the file is then read once. Disabled by default.
+     */
+    public ConfigMapper mergeChecksum(boolean mergeChecksum) {
+        this.mergeChecksum = mergeChecksum;
+        return this;
+    }
+
+    /**
+     * When enabled, a config may be split across fragment files: every {@code <key>.<ext>} file in the
+     * {@code <name>.d} directory next to the file (for {@code config.yml}, {@code config.d/}) holds the value of
+     * the top-level key {@code key} and replaces that key of the main file. Each fragment is cached by
+     * modification time and content hash, so a build only parses the fragments that changed, and
+     * {@link #buildInto(Object)} only rebinds their sections. {@link #save(Object)} writes every section back to
+     * its own fragment, defaults merged by {@link #load(InputStream)} are added to the file the section lives in.
+     * Disabled by default; {@link #mergeChecksum(boolean)} is not applied to split configs.
+     */
+    public ConfigMapper fragments(boolean fragments) {
+        this.fragments = fragments;
+        return this;
+    }
+
+    /**
+     * When enabled, string values may refer to other keys and to environment variables: {@code ${database.host}},
+     * {@code ${env:REDIS_PORT}}, optionally with a fallback ({@code ${env:REDIS_PORT:-6379}}); {@code $${} stands
+     * for a literal {@code ${}. References are resolved once per build, after the defaults are merged and before
+     * binding, so bound objects and {@code RozsConfig} nodes only ever see the final values. A value that is
+     * nothing but a reference keeps the type of its target. Cyclic and unresolvable references fail the build.
+     * {@link #save(Object)} writes the templates back for every value that still holds what its template
+     * resolved to, so references and secrets taken from the environment never end up in the file; a value
+     * changed in the object is written as it is and replaces its template. Disabled by default.
+     */
+    public ConfigMapper interpolate(boolean interpolate) {
+        this.interpolate = interpolate;
+        return this;
+    }
+
+    /**
+     * Sets the backend used to read and write the file. Without an explicit format it is picked from the file
+     * extension (see {@link ConfigFormat#forFile(File)}), YAML being the default.
+     */
+    public ConfigMapper format(ConfigFormat format) {
+        this.format = Objects.requireNonNull(format, "format");
+        this.explicitFormat = true;
+        return this;
+    }
+
+    public ConfigFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Controls what is kept of the loaded file between builds, see {@link RetentionMode}. Applies to the tree
+     * that is already loaded as well.
+     */
+    public ConfigMapper retention(RetentionMode retention) {
+        this.retention = Objects.requireNonNull(retention, "retention");
+        synchronized (writeLock) {
+            defaultValues = retain(defaultValues);
+        }
+        return this;
+    }
+
+    /**
+     * Binds lists and maps holding at least {@code threshold} objects or nested containers on a fork-join pool,
+     * see {@link #forkJoinPool(ForkJoinPool)}. Element order and container types stay the same as on the
+     * sequential path, but custom serializers are then called from several threads and must be thread-safe.
+     * 0, the default, binds everything on the calling thread.
+     */
+    public ConfigMapper parallelThreshold(int threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("threshold must not be negative");
+        this.parallelThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets the pool used by {@link #parallelThreshold(int)}, the common pool by default.
+     */
+    public ConfigMapper forkJoinPool(ForkJoinPool pool) {
+        this.forkJoinPool = Objects.requireNonNull(pool, "pool");
+        return this;
+    }
+
+    /**
+     * @return an estimate, in bytes, of the heap held by the tree this mapper retains between builds
+     */
+    public long retainedBytes() {
+        Map<String, Object> retained = defaultValues;
+        return retained.isEmpty() ? 0 : TreeCompactor.estimateRetainedBytes(retained);
+    }
+
+    private Map<String, Object> retain(Map<String, Object> tree) {
+        return switch (retention) {
+            case FULL -> tree;
+            case COMPACT -> (tree instanceof CompactMap) ? tree : TreeCompactor.compact(tree);
+            case NONE -> Collections.emptyMap();
+        };
+    }
+
     public ConfigMapper file(File file){
         this.file = file;
+        if (!explicitFormat) format = ConfigFormat.forFile(file);
         createFile(this.file);
         return this;
     }
 
     public ConfigMapper file(String path){
-        this.file = new File(path);
-        createFile(this.file);
-        return this;
+        return file(new File(path));
     }
 
     private void createFile(File file){
@@ -59,14 +213,23 @@ public final class ConfigMapper {
         }
     }
 
+    /**
+     * Loads with defaults taken from the field initializers of a new instance of the config class instead of a
+     * bundled resource: a missing or empty file is written the way {@link #save(Object)} would write that
+     * instance, comments included, and keys missing from an existing file are merged in from it. The generated
+     * defaults are cached per class, so later loads never construct or dump the instance again.
+     */
+    public ConfigMapper load() {
+        GeneratedDefaults defaults = GeneratedDefaults.of(clazz, format, serializers);
+        loadAndPreserveComments(this.file, defaults.document, defaults.tree);
+        return this;
+    }
+
     public ConfigMapper load(InputStream is) {
         if (is == null) return this;
 
         try {
-            String yamlContent = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-
-            loadAndPreserveComments(this.file, yamlContent);
-
+            loadAndPreserveComments(this.file, is.readAllBytes());
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -78,9 +241,8 @@ public final class ConfigMapper {
     public ConfigMapper load(File file) {
         if (file == null) return this;
 
-        try (FileReader reader = new FileReader(file)) {
-            String content = readerToString(reader);
-            loadAndPreserveComments(file, content);
+        try {
+            loadAndPreserveComments(file, Files.readAllBytes(file.toPath()));
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -92,59 +254,188 @@ public final class ConfigMapper {
     }
 
     // Load helpers \ start
-    private String readerToString(Reader reader) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        char[] buf = new char[4096];
-        int r;
-        while ((r = reader.read(buf)) != -1) {
-            sb.append(buf, 0, r);
+    private YamlEngine yamlEngine() {
+        return (format instanceof YamlFormat yamlFormat) ? yamlFormat.engine() : null;
+    }
+
+    private void writeAtomically(File file, byte[] content) throws IOException {
+        AtomicFiles.write(file.toPath(), content);
+    }
+
+    private void loadAndPreserveComments(File file, byte[] content) {
+        loadAndPreserveComments(file, content, null);
+    }
+
+    // resourceTree is the already parsed and stripped form of content, or null to parse content here
+    private void loadAndPreserveComments(File file, byte[] content, Map<String, Object> resourceTree) {
+        ConfigLoadEvent event = new ConfigLoadEvent();
+        event.begin();
+        synchronized (writeLock) {
+            loadLocked(file, content, resourceTree, event.isEnabled() ? event : null);
+        }
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.configClass = clazz;
+            event.commit();
         }
-        return sb.toString();
     }
 
-    private void loadAndPreserveComments(File file, String yamlContent) {
+    // event is null unless a JFR recording asked for it, so the bookkeeping costs nothing otherwise
+    private void loadLocked(File file, byte[] content, Map<String, Object> resourceTree, ConfigLoadEvent event) {
         try {
-            if (!file.exists() || file.length() == 0) {
-                try (FileWriter writer = new FileWriter(file)) {
-                    writer.write(yamlContent);
-                }
+            byte[] disk;
+            boolean unchanged = false;
+            FragmentStore store = fragmentStore();
+            // the sidecar only covers the main file
+            boolean checksum = mergeChecksum && store == null;
+            if ((!file.exists() || file.length() == 0) && (store == null || store.keys().isEmpty())) {
+                writeAtomically(file, content);
+                disk = content;
+                if (event != null) event.bytesWritten = content.length;
             } else {
-                Map<String, Object> resourceValues = yaml.load(yamlContent);
-                Map<String, Object> diskValues;
-                try (FileReader reader = new FileReader(file)) {
-                    diskValues = yaml.load(reader);
+                long start = (event != null) ? System.nanoTime() : 0;
+                disk = file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0];
+                // neither input changed since a merge that left this exact file, so it would add nothing again
+                unchanged = checksum && MergeChecksum.matches(file, content, disk, clazz, format);
+                if (unchanged) {
+                    if (event != null) event.bytesRead = disk.length;
+                } else {
+                    disk = mergeDefaults(file, content, resourceTree, disk, store, event, start);
                 }
-                if (resourceValues == null) resourceValues = new HashMap<>();
-                if (diskValues == null) diskValues = new HashMap<>();
+            }
+            if (checksum && !unchanged) MergeChecksum.record(file, content, disk, clazz, format);
+
+            long start = (event != null) ? System.nanoTime() : 0;
+            Map<String, Object> loaded = parse(disk);
+            if (store != null) {
+                // cached fragments were merged against the previous defaults
+                store.invalidate();
+                loaded.putAll(store.read(null));
+            }
+            if (event != null) {
+                if (unchanged) event.parseDuration = System.nanoTime() - start;
+                event.keyCount = countKeys(loaded);
+            }
+            // published as a whole, readers only ever see a complete tree
+            defaultValues = retain(loaded);
+            List<byte[]> inputs = inputs(disk, store);
+            defaultsDigest = digest(inputs);
+            defaultsEnv = envReferences(inputs);
 
-                // Remove NullableFields from resourceValues so they are not forcefully merged if they don't exist on disk
-                removeNullableFields(clazz, resourceValues);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-                int sizeBefore = countKeys(diskValues);
-                Set<String> changeablePrefixes = DeepMerger.collectChangeableMapPrefixes(clazz, diskValues);
-                DeepMerger.deepMergeDefaultsIntoCurrent(resourceValues, diskValues, "", changeablePrefixes);
-                int sizeAfter = countKeys(diskValues);
+    /**
+     * Merges the default resource into the file and writes it back if anything was added.
+     *
+     * @return the file content after the merge
+     */
+    private byte[] mergeDefaults(File file, byte[] content, Map<String, Object> resourceTree, byte[] disk, FragmentStore store, ConfigLoadEvent event, long start) throws IOException {
+        Map<String, Object> resourceValues = (resourceTree != null) ? resourceTree : format.read(content);
+        Map<String, Object> diskValues = format.read(disk);
+        if (resourceValues == null) resourceValues = new HashMap<>();
+        if (diskValues == null) diskValues = new HashMap<>();
+        Map<String, Object> mainValues = diskValues;
+        // parsed apart from the cache, the merge below adds to these trees while builds may still read cached ones
+        Map<String, Map<String, Object>> sections = (store != null) ? store.parse() : Map.of();
+        if (!sections.isEmpty()) {
+            diskValues = new LinkedHashMap<>(mainValues);
+            diskValues.putAll(sections);
+        }
+        if (event != null) {
+            event.bytesRead = (resourceTree != null ? 0 : content.length) + disk.length;
+            event.parseDuration = System.nanoTime() - start;
+            start = System.nanoTime();
+        }
 
-                if (sizeAfter > sizeBefore) {
-                    try (FileWriter writer = new FileWriter(file)) {
-                        writer.write(yaml.dump(diskValues));
-                    }
-                }
+        // Remove NullableFields from resourceValues so they are not forcefully merged if they don't exist on disk
+        if (resourceTree == null) removeNullableFields(clazz, resourceValues);
+
+        List<DeepMerger.Addition> additions = new ArrayList<>();
+        Set<String> changeablePrefixes = DeepMerger.collectChangeableMapPrefixes(clazz, diskValues);
+        DeepMerger.deepMergeDefaultsIntoCurrent(resourceValues, diskValues, "", changeablePrefixes, additions);
+        if (event != null) {
+            event.mergeAdditions = additions.size();
+            event.mergeDuration = System.nanoTime() - start;
+        }
+
+        if (!additions.isEmpty() && !sections.isEmpty()) {
+            return writeSections(file, mainValues, diskValues, sections, additions, disk, event);
+        }
+        if (!additions.isEmpty()) {
+            byte[] written = writeMerged(file, diskValues, additions, clazz);
+            if (event != null) event.bytesWritten = written.length;
+            return written;
+        }
+        return disk;
+    }
+
+    private byte[] writeMerged(File file, Map<String, Object> merged, List<DeepMerger.Addition> additions, Type rootType) throws IOException {
+        String updated = (preserveFormatting && yamlEngine() != null) ? patchDocument(file, merged, additions, rootType) : null;
+        byte[] written = updated != null
+                ? updated.getBytes(StandardCharsets.UTF_8)
+                : format.write(merged);
+        writeAtomically(file, written);
+        return written;
+    }
+
+    /**
+     * Writes the additions of a split config to the files their sections live in.
+     *
+     * @return the main file content after the merge
+     */
+    private byte[] writeSections(File file, Map<String, Object> mainValues, Map<String, Object> merged, Map<String, Map<String, Object>> sections,
+                                 List<DeepMerger.Addition> additions, byte[] disk, ConfigLoadEvent event) throws IOException {
+        List<DeepMerger.Addition> mainAdditions = new ArrayList<>();
+        Map<String, List<DeepMerger.Addition>> sectionAdditions = new LinkedHashMap<>();
+        for (DeepMerger.Addition addition : additions) {
+            List<Object> path = addition.parentPath();
+            if (!path.isEmpty() && sections.containsKey(path.get(0))) {
+                // re-rooted at the fragment, whose document is the section itself
+                sectionAdditions.computeIfAbsent((String) path.get(0), k -> new ArrayList<>()).add(new DeepMerger.Addition(
+                        path.subList(1, path.size()), addition.key(), addition.value(), addition.previousKey(), addition.replace()));
+            } else {
+                mainAdditions.add(addition);
             }
+        }
 
-            try (FileReader reader = new FileReader(file)) {
-                Map<String, Object> loaded = yaml.load(reader);
-                defaultValues = (loaded != null) ? loaded : new HashMap<>();
+        FragmentStore store = fragmentStore();
+        long written = 0;
+        for (Map.Entry<String, List<DeepMerger.Addition>> entry : sectionAdditions.entrySet()) {
+            String key = entry.getKey();
+            written += writeMerged(store.fileOf(key), sections.get(key), entry.getValue(), sectionType(key)).length;
+        }
+        if (!mainAdditions.isEmpty()) {
+            // keys overridden by a fragment keep whatever the main file had for them
+            Map<String, Object> mainMerged = new LinkedHashMap<>(mainValues);
+            for (Map.Entry<String, Object> entry : merged.entrySet()) {
+                if (!sections.containsKey(entry.getKey())) mainMerged.put(entry.getKey(), entry.getValue());
             }
+            disk = writeMerged(file, mainMerged, mainAdditions, clazz);
+            written += disk.length;
+        }
+        if (event != null) event.bytesWritten = written;
+        return disk;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    // declared type of a top-level key, its field comments are used for keys added to the key's fragment
+    private Type sectionType(String key) {
+        for (Field field : TypeUtils.getAllFields(clazz)) {
+            if (TypeUtils.resolveKey(field).equals(key)) return field.getGenericType();
         }
+        return Object.class;
+    }
+
+    static void removeNullableFields(Type currentType, Object value) {
+        removeNullableFields(currentType, value, Collections.newSetFromMap(new IdentityHashMap<>()));
     }
 
-    private void removeNullableFields(Type currentType, Object value) {
+    private static void removeNullableFields(Type currentType, Object value, Set<Object> visited) {
         if (currentType == null || value == null) return;
-        
+        if ((value instanceof Map || value instanceof Collection) && !visited.add(value)) return;
+
         Class<?> rawClass = TypeUtils.getRawClass(currentType);
         if (rawClass == null || TypeUtils.isSimpleType(rawClass)) return;
 
@@ -152,14 +443,14 @@ public final class ConfigMapper {
             Type valType = TypeUtils.getMapValueGenericType(currentType);
             if (valType != null) {
                 for (Object nestedVal : ((Map<?, ?>) value).values()) {
-                    removeNullableFields(valType, nestedVal);
+                    removeNullableFields(valType, nestedVal, visited);
                 }
             }
         } else if (Collection.class.isAssignableFrom(rawClass) && value instanceof Collection) {
             Type elemType = TypeUtils.getCollectionElementGenericType(currentType);
             if (elemType != null) {
                 for (Object nestedVal : (Collection<?>) value) {
-                    removeNullableFields(elemType, nestedVal);
+                    removeNullableFields(elemType, nestedVal, visited);
                 }
             }
         } else if (value instanceof Map) {
@@ -173,19 +464,43 @@ public final class ConfigMapper {
                 if (field.isAnnotationPresent(net.weesli.rozsconfig.annotations.NullableField.class)) {
                     map.remove(key);
                 } else if (map.containsKey(key)) {
-                    removeNullableFields(field.getGenericType(), map.get(key));
+                    removeNullableFields(field.getGenericType(), map.get(key), visited);
                 }
             }
         }
     }
 
-    @SuppressWarnings("unchecked")
+    // Splices the added keys into the existing text; null means the caller has to dump the whole tree instead
+    private String patchDocument(File file, Map<String, Object> merged, List<DeepMerger.Addition> additions, Type rootType) throws IOException {
+        // a cyclic tree can not be compared below, the full dump writes it with anchors instead
+        if (DeepMerger.isCyclic(merged)) return null;
+        String document = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        return yamlEngine().apply(yaml -> {
+            String patched = DocumentPatcher.patch(yaml, document, additions, rootType);
+            if (patched == null) return null;
+            try {
+                // never trust a patch that does not read back to exactly the merged tree
+                Object reread = yaml.load(patched);
+                return merged.equals(reread) ? patched : null;
+            } catch (Exception e) {
+                return null;
+            }
+        });
+    }
+
     private int countKeys(Map<String, Object> map) {
+        return countKeys(map, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    // aliased mappings are counted once
+    @SuppressWarnings("unchecked")
+    private int countKeys(Map<String, Object> map, Set<Object> visited) {
+        if (!visited.add(map)) return 0;
         int count = 0;
         for (Map.Entry<String, Object> entry : map.entrySet()) {
             count++;
             if (entry.getValue() instanceof Map) {
-                count += countKeys((Map<String, Object>) entry.getValue());
+                count += countKeys((Map<String, Object>) entry.getValue(), visited);
             }
         }
         return count;
@@ -230,21 +545,320 @@ public final class ConfigMapper {
         return new LanguageConfig<>(languageKeys, path, configName, defaultConfig,clazz);
     }
 
+    public <T> LanguageConfig<T> asLanguageConfig(
+            List<String> languageKeys,
+            Path path,
+            String configName,
+            Map<String,InputStream> defaultConfig,
+            Class<T> clazz,
+            ConfigFormat format
+    ){
+        return new LanguageConfig<>(languageKeys, path, configName, defaultConfig, clazz, format);
+    }
+
+    /**
+     * Like {@link #asLanguageConfig(List, Path, String, Map, Class)}, but each locale's resource is only opened
+     * when the locale is first used.
+     */
+    public <T> LanguageConfig<T> asLanguageConfig(
+            List<String> languageKeys,
+            Path path,
+            String configName,
+            LocaleResources defaultConfig,
+            Class<T> clazz
+    ){
+        return new LanguageConfig<>(languageKeys, path, configName, defaultConfig, clazz);
+    }
+
+    public <T> LanguageConfig<T> asLanguageConfig(
+            List<String> languageKeys,
+            Path path,
+            String configName,
+            LocaleResources defaultConfig,
+            Class<T> clazz,
+            ConfigFormat format
+    ){
+        return new LanguageConfig<>(languageKeys, path, configName, defaultConfig, clazz, format);
+    }
+
+    // Build phases, kept separate so the async API can run them as pipeline stages: read -> parse -> merge/bind
+    private byte[] readSource() throws IOException {
+        return Files.readAllBytes(file.toPath());
+    }
+
+    private Map<String, Object> parse(byte[] data) throws IOException {
+        Map<String, Object> loaded = format.read(data);
+        return (loaded != null) ? loaded : new HashMap<>();
+    }
+
+    // Puts the fragment trees over the keys of the main file, see fragments(boolean)
+    private Map<String, Object> withFragments(Map<String, Object> currentValues) throws IOException {
+        FragmentStore store = fragmentStore();
+        if (store != null) currentValues.putAll(store.read(this::mergeFragment));
+        return currentValues;
+    }
+
+    private FragmentStore fragmentStore() {
+        if (!fragments) return null;
+        FragmentStore store = fragmentStore;
+        File file = this.file;
+        ConfigFormat format = this.format;
+        if (store == null || !store.isFor(file, format)) {
+            store = new FragmentStore(file, format);
+            fragmentStore = store;
+        }
+        return store;
+    }
+
+    // A fragment gets its defaults once, when it is parsed; the merge of every build then finds nothing to add
+    // to it, so the cached tree is never modified after it is published
+    private void mergeFragment(String key, Map<String, Object> fragment) {
+        Object defaults = defaultValues.get(key);
+        if (!(defaults instanceof Map)) return;
+        Map<String, Object> section = new HashMap<>();
+        section.put(key, fragment);
+        Map<String, Object> sectionDefaults = new HashMap<>();
+        sectionDefaults.put(key, defaults);
+        DeepMerger.deepMergeDefaultsIntoCurrent(sectionDefaults, section, "", DeepMerger.collectChangeableMapPrefixes(clazz, section));
+    }
+
+    // Merges the loaded defaults into a freshly parsed tree, the result belongs to the caller
+    private Map<String, Object> merge(Map<String, Object> currentValues) {
+        return interpolated(mergeCollecting(currentValues, null));
+    }
+
+    private Map<String, Object> interpolated(Map<String, Object> merged) {
+        return interpolate ? Interpolator.resolve(merged) : merged;
+    }
+
+    // additions may be null when the caller does not care which defaults were filled in
+    private Map<String, Object> mergeCollecting(Map<String, Object> currentValues, List<DeepMerger.Addition> additions) {
+        Set<String> changeablePrefixes = DeepMerger.collectChangeableMapPrefixes(clazz, currentValues);
+        DeepMerger.deepMergeDefaultsIntoCurrent(defaultValues, currentValues, "", changeablePrefixes, additions);
+        return currentValues;
+    }
+
+    /**
+     * @return the tree {@link #build()} would bind: the file with its fragments, merged with the loaded defaults
+     * and interpolated. Parts of it may be shared with the mapper's caches, so it must not be modified.
+     */
+    public Map<String, Object> buildTree() {
+        try {
+            return merge(withFragments(parse(readSource())));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return a SHA-256 digest of everything {@link #buildTree()} is built from: the file and its fragments, the
+     * defaults of the last load and, when interpolating, the environment variables they refer to. Equal digests
+     * mean an equal tree, without parsing anything.
+     */
+    public byte[] sourceDigest() {
+        try {
+            List<byte[]> inputs = inputs(readSource(), fragmentStore());
+            MessageDigest digest = MergeChecksum.sha256();
+            digest.update(defaultsDigest);
+            digest.update(digest(inputs));
+            if (interpolate) {
+                Set<String> names = new TreeSet<>(defaultsEnv);
+                names.addAll(envReferences(inputs));
+                for (String name : names) {
+                    String value = System.getenv(name);
+                    digest.update((name + (value != null ? "=" + value : "!") + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return digest.digest();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // the main file content followed by the name and content of every fragment file
+    private static List<byte[]> inputs(byte[] main, FragmentStore store) throws IOException {
+        List<byte[]> inputs = new ArrayList<>();
+        inputs.add(main);
+        if (store == null) return inputs;
+        for (String key : store.keys()) {
+            try {
+                byte[] content = Files.readAllBytes(store.fileOf(key).toPath());
+                inputs.add(key.getBytes(StandardCharsets.UTF_8));
+                inputs.add(content);
+            } catch (NoSuchFileException deleted) {
+                // removed since it was listed
+            }
+        }
+        return inputs;
+    }
+
+    // length prefixed, so moving bytes from one input to the next changes the digest
+    private static byte[] digest(List<byte[]> inputs) {
+        MessageDigest digest = MergeChecksum.sha256();
+        for (byte[] input : inputs) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(input.length).array());
+            digest.update(input);
+        }
+        return digest.digest();
+    }
+
+    private static Set<String> envReferences(List<byte[]> inputs) {
+        Set<String> names = new HashSet<>();
+        for (byte[] input : inputs) {
+            // variable names are ASCII, a byte per char is enough to find them in any of the formats
+            Matcher matcher = ENV_REFERENCE.matcher(new String(input, StandardCharsets.ISO_8859_1));
+            while (matcher.find()) names.add(matcher.group(1).trim());
+        }
+        return names;
+    }
+
+    /**
+     * Reads the file into a live {@link ConfigView} of the config interface this mapper was created for. Reloading
+     * the view only swaps the snapshot its getters read from, nothing is bound reflectively.
+     */
     @SuppressWarnings("unchecked")
+    public <T> ConfigView<T> view() {
+        return new ConfigView<>(this, (Class<T>) clazz).reload();
+    }
+
+    /**
+     * Binds the elements of the top-level list {@code key} one at a time, as the stream is consumed, so a huge
+     * list never has to be in memory as a whole. YAML files are read from the parser's event stream; other
+     * formats, and mappers that {@link #interpolate(boolean) interpolate}, parse the whole file first and only
+     * bind lazily. A file without the list, or with an empty one, streams the list of the loaded defaults.
+     * The stream keeps the file open until it is closed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Stream<T> stream(String key, Class<T> elementType) {
+        Objects.requireNonNull(key, "key");
+        YamlEngine engine = yamlEngine();
+        Iterator<?> elements;
+        Closeable resource = null;
+        try {
+            ListStream listStream = (engine != null && !interpolate)
+                    ? ListStream.open(engine, Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8), key)
+                    : null;
+            if (listStream != null) {
+                elements = listStream;
+                resource = listStream;
+            } else {
+                Object list = (engine != null && !interpolate) ? null : buildTree().get(key);
+                if (!(list instanceof Collection<?> col) || col.isEmpty()) list = defaultValues.get(key);
+                elements = (list instanceof Collection<?> col) ? col.iterator() : Collections.emptyIterator();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        Iterator<T> bound = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return elements.hasNext();
+            }
+
+            @Override
+            public T next() {
+                // a reader per element, its alias table would otherwise keep every element reachable
+                Object element = new ConfigReader(serializers).convertElement(elements.next(), elementType, elementType);
+                return (T) element;
+            }
+        };
+        Stream<T> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(bound, Spliterator.ORDERED), false);
+        if (resource == null) return stream;
+        Closeable closeable = resource;
+        return stream.onClose(() -> {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    List<ObjectSerializer<?>> serializers() {
+        return serializers;
+    }
+
     public <T> T build() {
         try {
-            T config = (T) clazz.getDeclaredConstructor().newInstance();
+            return buildTraced(null);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Runs the build phases, timing each of them when a JFR recording has the build event enabled
+    private <T> T buildTraced(T existing) throws IOException {
+        ConfigBuildEvent event = beginBuild();
+        return bindTraced(event, parseTraced(event, readTraced(event)), existing);
+    }
+
+    // The phases below are shared with the async API; event is null unless a JFR recording asked for it
+
+    private static ConfigBuildEvent beginBuild() {
+        ConfigBuildEvent event = new ConfigBuildEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    private byte[] readTraced(ConfigBuildEvent event) throws IOException {
+        if (event == null) return readSource();
+        long start = System.nanoTime();
+        byte[] data = readSource();
+        event.readDuration = System.nanoTime() - start;
+        event.bytesRead = data.length;
+        return data;
+    }
+
+    private Map<String, Object> parseTraced(ConfigBuildEvent event, byte[] data) throws IOException {
+        if (event == null) return withFragments(parse(data));
+        long start = System.nanoTime();
+        Map<String, Object> tree = withFragments(parse(data));
+        event.parseDuration = System.nanoTime() - start;
+        return tree;
+    }
+
+    private <T> T bindTraced(ConfigBuildEvent event, Map<String, Object> tree, T existing) {
+        if (event == null) {
+            Map<String, Object> merged = merge(tree);
+            return (existing == null) ? bind(merged) : bindInto(existing, merged);
+        }
+        long start = System.nanoTime();
+        List<DeepMerger.Addition> additions = new ArrayList<>();
+        tree = interpolated(mergeCollecting(tree, additions));
+        long merged = System.nanoTime();
+        T result = (existing == null) ? bind(tree) : bindInto(existing, tree);
+        long bound = System.nanoTime();
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.configClass = clazz;
+            event.rebind = existing != null;
+            event.keyCount = countKeys(tree);
+            event.mergeAdditions = additions.size();
+            event.mergeDuration = merged - start;
+            event.bindDuration = bound - merged;
+            event.commit();
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T bind(Map<String, Object> currentValues) {
+        try {
             Set<String> processed = new HashSet<>();
-            try (FileReader reader = new FileReader(file)) {
-                Map<String, Object> loaded = yaml.load(reader);
-                currentValues = (loaded != null) ? loaded : new HashMap<>();
-            }
 
-            ConfigReader configReader = new ConfigReader(serializers);
+            ConfigReader configReader = new ConfigReader(serializers).parallel(parallelThreshold, forkJoinPool);
 
-            Set<String> changeablePrefixes = DeepMerger.collectChangeableMapPrefixes(clazz, currentValues);
-            DeepMerger.deepMergeDefaultsIntoCurrent(defaultValues, currentValues, "", changeablePrefixes);
+            ConstructorBinding binding = ConstructorBinding.of(clazz);
+            if (binding != null) {
+                T config = (T) configReader.construct(binding, currentValues);
+                configReader.applyRozsConfig(config, clazz, currentValues);
+                return config;
+            }
 
+            T config = (T) clazz.getDeclaredConstructor().newInstance();
+            configReader.remember(currentValues, clazz, config);
             configReader.applyRozsConfig(config, clazz, currentValues);
             for (Field field : TypeUtils.getAllFields(clazz)) {
                 if (!processed.add(field.getName())) continue;
@@ -263,24 +877,271 @@ public final class ConfigMapper {
                     configReader.processObject(config, field, currentValues, config);
                 }
             }
+            recordSections(config, currentValues);
             return config;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Reloads the file into an instance returned by an earlier {@link #build()}. Scalar fields are updated in
+     * place, nested objects, lists and maps are reused where their shape is unchanged and only new or changed
+     * entries are allocated, so references other code holds to nested config objects stay valid.
+     *
+     * @return {@code existing}
+     * @throws UnsupportedOperationException if the config class is a record or uses a constructor binding
+     */
+    public <T> T buildInto(T existing) {
+        checkRebindable(existing);
+        try {
+            return buildTraced(existing);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void checkRebindable(Object existing) {
+        Objects.requireNonNull(existing, "existing");
+        if (ConstructorBinding.of(clazz) != null) {
+            throw new UnsupportedOperationException("[RozsConfig] '" + clazz.getName() + "' is immutable, use build() instead.");
+        }
+    }
+
+    private <T> T bindInto(T existing, Map<String, Object> currentValues) {
+        try {
+            ConfigReader configReader = new ConfigReader(serializers).parallel(parallelThreshold, forkJoinPool);
+            configReader.applyRozsConfig(existing, clazz, currentValues);
+            configReader.bindInto(existing, clazz, currentValues, unchangedSections(existing, currentValues));
+            recordSections(existing, currentValues);
+            return existing;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record BoundSections(WeakReference<Object> target, Map<String, Object> trees) {}
+
+    private void recordSections(Object target, Map<String, Object> currentValues) {
+        FragmentStore store = fragmentStore();
+        if (store == null) return;
+        Map<String, Object> trees = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : store.cached().entrySet()) {
+            if (currentValues.get(entry.getKey()) == entry.getValue()) trees.put(entry.getKey(), entry.getValue());
+        }
+        boundSections = new BoundSections(new WeakReference<>(target), trees);
+    }
+
+    // sections of target that were bound from the very fragment trees found in currentValues again
+    private Set<String> unchangedSections(Object target, Map<String, Object> currentValues) {
+        BoundSections bound = boundSections;
+        if (bound == null || bound.target().get() != target) return Set.of();
+        Set<String> unchanged = new HashSet<>();
+        for (Map.Entry<String, Object> entry : bound.trees().entrySet()) {
+            if (currentValues.get(entry.getKey()) == entry.getValue()) unchanged.add(entry.getKey());
+        }
+        return unchanged;
+    }
+
     public void save(Object object) {
-        try (FileWriter writer = new FileWriter(file)) {
-            StringBuilder sb = new StringBuilder();
+        try {
+            ConfigSaveEvent event = beginSave();
+            writeTraced(event, object, renderTraced(event, object));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static ConfigSaveEvent beginSave() {
+        ConfigSaveEvent event = new ConfigSaveEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    private Map<File, byte[]> renderTraced(ConfigSaveEvent event, Object object) {
+        if (event == null) return render(object);
+        long start = System.nanoTime();
+        Map<File, byte[]> content = render(object);
+        event.renderDuration = System.nanoTime() - start;
+        return content;
+    }
+
+    private void writeTraced(ConfigSaveEvent event, Object object, Map<File, byte[]> content) throws IOException {
+        if (event == null) {
+            write(content);
+            return;
+        }
+        long start = System.nanoTime();
+        write(content);
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.configClass = object.getClass();
+            event.bytesWritten = length(content);
+            event.writeDuration = System.nanoTime() - start;
+            event.commit();
+        }
+    }
+
+    // file -> content to write, a null content deletes the file
+    private Map<File, byte[]> render(Object object) {
+        YamlEngine engine = yamlEngine();
+        Yaml yaml = (engine != null) ? engine.acquire() : null;
+        try {
             ConfigWriter configWriter = new ConfigWriter(yaml, serializers);
-            configWriter.writeYamlWithComments(object, sb);
-            writer.write(sb.toString());
+            Map<String, Object> root = configWriter.toPlainTree(object);
+            if (interpolate && file.exists()) Interpolator.restore(root, mergeCollecting(withFragments(parse(readSource())), null));
+            Map<File, byte[]> files = new LinkedHashMap<>();
+            Set<String> sections = new HashSet<>();
+            FragmentStore store = fragmentStore();
+            if (store != null) {
+                for (String key : store.keys()) {
+                    // a section that is no longer a mapping moves back into the main file
+                    if (!(root.get(key) instanceof Map<?, ?> section)) {
+                        files.put(store.fileOf(key), null);
+                        continue;
+                    }
+                    sections.add(key);
+                    files.put(store.fileOf(key), (yaml != null)
+                            ? configWriter.writeSection(object.getClass(), key, section).getBytes(StandardCharsets.UTF_8)
+                            : format.write(plainMap(section)));
+                }
+            }
+            byte[] content;
+            if (yaml != null) {
+                StringBuilder sb = new StringBuilder();
+                configWriter.writeYamlWithComments(object, root, sections, sb);
+                content = sb.toString().getBytes(StandardCharsets.UTF_8);
+            } else {
+                Map<String, Object> main = root;
+                if (!sections.isEmpty()) {
+                    main = new LinkedHashMap<>(root);
+                    main.keySet().removeAll(sections);
+                }
+                content = format.write(main);
+            }
+            files.put(file, content);
+            return files;
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            if (yaml != null) engine.release(yaml);
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> plainMap(Map<?, ?> section) {
+        return (Map<String, Object>) section;
+    }
+
+    private void write(Map<File, byte[]> files) throws IOException {
+        synchronized (writeLock) {
+            for (Map.Entry<File, byte[]> entry : files.entrySet()) {
+                if (entry.getValue() != null) {
+                    writeAtomically(entry.getKey(), entry.getValue());
+                } else {
+                    Files.deleteIfExists(entry.getKey().toPath());
+                }
+            }
+        }
+    }
+
+    private static long length(Map<File, byte[]> files) {
+        long length = 0;
+        for (byte[] content : files.values()) {
+            if (content != null) length += content.length;
+        }
+        return length;
+    }
+
+    // ── Async API ───────────────────────────────────────────────────────
+
+    /**
+     * Sets the executor used by the {@code *Async} methods. Defaults to {@link ConfigExecutors#defaultExecutor()},
+     * virtual threads on Java 21+.
+     */
+    public ConfigMapper executor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+        return this;
+    }
+
+    private Executor executor() {
+        Executor executor = this.executor;
+        return (executor != null) ? executor : ConfigExecutors.defaultExecutor();
+    }
+
+    /**
+     * Asynchronous {@link #load(InputStream)}: the stream is drained in one stage, parsing and merging run in
+     * the next, so reading one file overlaps with parsing another when several mappers load at once.
+     */
+    public CompletableFuture<ConfigMapper> loadAsync(InputStream is) {
+        if (is == null) return CompletableFuture.completedFuture(this);
+        Executor executor = executor();
+        return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return is.readAllBytes();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor)
+                .thenApplyAsync(content -> {
+                    loadAndPreserveComments(this.file, content);
+                    return this;
+                }, executor);
+    }
+
+    /**
+     * Asynchronous {@link #build()}, run as read, parse and bind stages on the configured executor.
+     */
+    public <T> CompletableFuture<T> buildAsync() {
+        return buildAsync(null);
+    }
+
+    /**
+     * Asynchronous {@link #buildInto(Object)}: reads, parses and rebinds the file into {@code existing}.
+     */
+    public <T> CompletableFuture<T> reloadAsync(T existing) {
+        checkRebindable(existing);
+        return buildAsync(existing);
+    }
+
+    private <T> CompletableFuture<T> buildAsync(T existing) {
+        Executor executor = executor();
+        ConfigBuildEvent event = beginBuild();
+        return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return readTraced(event);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor)
+                .thenApplyAsync(data -> {
+                    try {
+                        return parseTraced(event, data);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor)
+                .thenApplyAsync(tree -> bindTraced(event, tree, existing), executor);
+    }
+
+    /**
+     * Asynchronous {@link #save(Object)}. The object is rendered on the executor, so it must not be modified
+     * until the returned future completes.
+     */
+    public CompletableFuture<Void> saveAsync(Object object) {
+        Executor executor = executor();
+        ConfigSaveEvent event = beginSave();
+        return CompletableFuture.supplyAsync(() -> renderTraced(event, object), executor)
+                .thenAcceptAsync(content -> {
+                    try {
+                        writeTraced(event, object, content);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+    }
+
     public static List<Field> getAllFields(Class<?> clazz) {
         return TypeUtils.getAllFields(clazz);
     }
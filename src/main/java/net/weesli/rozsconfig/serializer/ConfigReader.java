@@ -2,19 +2,78 @@ package net.weesli.rozsconfig.serializer;
 
 import net.weesli.rozsconfig.annotations.IgnoreField;
 import net.weesli.rozsconfig.model.RozsConfig;
+import net.weesli.rozsconfig.serializer.component.FieldReader;
 import net.weesli.rozsconfig.serializer.component.ObjectNode;
 import net.weesli.rozsconfig.serializer.component.ObjectSerializer;
+import net.weesli.rozsconfig.serializer.component.StreamingSerializer;
 
+import java.io.Serial;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 final class ConfigReader {
 
     private final List<ObjectSerializer<?>> serializers;
+    // (raw node, target type) -> the object bound from it. SnakeYAML hands out the same map or list for every
+    // alias of an anchor, so aliases end up sharing one instance; objects are registered before their fields
+    // are filled, which lets cyclic references resolve to the instance under construction
+    // concurrent, the workers of a parallel container share it
+    private final Map<BoundKey, Object> bound;
+    private final Set<Object> constructing = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> rebound = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int parallelThreshold;
+    private ForkJoinPool pool;
 
     ConfigReader(List<ObjectSerializer<?>> serializers) {
         this.serializers = serializers;
+        this.bound = new ConcurrentHashMap<>();
+    }
+
+    // reader for one parallel chunk: shares what has been bound so far, recursion state is per thread
+    private ConfigReader(ConfigReader parent) {
+        this.serializers = parent.serializers;
+        this.bound = parent.bound;
+        this.constructing.addAll(parent.constructing);
+        this.parallelThreshold = parent.parallelThreshold;
+        this.pool = parent.pool;
+    }
+
+    /**
+     * Converts the elements of lists and maps holding at least {@code threshold} entries on {@code pool}.
+     * A threshold of 0 keeps every conversion on the calling thread.
+     */
+    ConfigReader parallel(int threshold, ForkJoinPool pool) {
+        this.parallelThreshold = threshold;
+        this.pool = pool;
+        return this;
+    }
+
+    private record BoundKey(Object raw, Type type) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BoundKey other && other.raw == raw && Objects.equals(other.type, type);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(raw) * 31 + Objects.hashCode(type);
+        }
+    }
+
+    /**
+     * @return {@code value}, or the instance another worker bound from the same node first
+     */
+    Object remember(Object raw, Type type, Object value) {
+        Object first = bound.putIfAbsent(new BoundKey(raw, type), value);
+        return (first != null) ? first : value;
+    }
+
+    private Object boundTo(Object raw, Type type) {
+        return bound.get(new BoundKey(raw, type));
     }
 
     void applyRozsConfig(Object o, Class<?> clazz, Map<String, Object> currentValues) {
@@ -38,8 +97,7 @@ final class ConfigReader {
             if (raw == null) {
                 for (ObjectSerializer<?> s : serializers) {
                     if (s.isType(field.getType())) {
-                        ObjectNode node = new ObjectNode(currentMap);
-                        Object val = s.deserialize(node);
+                        Object val = deserialize(s, currentMap);
                         if (val != null) { field.set(owner, val); }
                         return;
                     }
@@ -70,7 +128,7 @@ final class ConfigReader {
             }
             if (owner.getClass().isAnnotationPresent(IgnoreField.class)) return;
             if (existing == null && TypeUtils.isCollectionOrMap(type)) {
-                Object empty = TypeUtils.newDefaultContainer(type);
+                Object empty = TypeUtils.newDefaultContainer(type, field.getGenericType());
                 field.set(owner, empty);
                 return;
             }
@@ -89,13 +147,9 @@ final class ConfigReader {
                 if (s.isType(type)) {
                     Object raw = existing;
                     if (raw instanceof Map) {
-                        ObjectNode node = new ObjectNode((Map<String, Object>) raw);
-                        Object val = ((ObjectSerializer) s).deserialize(node);
-                        field.set(owner, val);
+                        field.set(owner, deserialize(s, (Map<String, Object>) raw));
                     } else {
-                        ObjectNode node = new ObjectNode(Map.of(resolved, raw));
-                        Object val = ((ObjectSerializer) s).deserialize(node);
-                        field.set(owner, val);
+                        field.set(owner, deserialize(s, Map.of(resolved, raw)));
                     }
                     return;
                 }
@@ -106,6 +160,18 @@ final class ConfigReader {
                 return;
             }
 
+            Object shared = (existing instanceof Map) ? boundTo(existing, type) : null;
+            if (shared != null) {
+                field.set(owner, shared);
+                return;
+            }
+
+            ConstructorBinding binding = ConstructorBinding.of(type);
+            if (binding != null) {
+                field.set(owner, existing instanceof Map ? construct(binding, (Map<String, Object>) existing) : null);
+                return;
+            }
+
             Object object;
             if (type.isMemberClass() && !Modifier.isStatic(type.getModifiers())) {
                 var ctor = type.getDeclaredConstructor(parent.getClass());
@@ -116,6 +182,13 @@ final class ConfigReader {
                 ctor.setAccessible(true);
                 object = ctor.newInstance();
             }
+            if (existing instanceof Map) {
+                Object first = remember(existing, type, object);
+                if (first != object) {
+                    field.set(owner, first);
+                    return;
+                }
+            }
             field.set(owner, object);
 
             Map<String, Object> subMap = Collections.emptyMap();
@@ -144,32 +217,34 @@ final class ConfigReader {
     @SuppressWarnings({"unchecked", "rawtypes"})
     Object materializeContainerFromYaml(Object yamlValue, Class<?> targetType, Type genericType) {
         if (yamlValue == null) return null;
+        Type boundType = (genericType != null) ? genericType : targetType;
+        Object shared = boundTo(yamlValue, boundType);
+        if (shared != null) return shared;
 
         if (Map.class.isAssignableFrom(targetType)) {
             if (!(yamlValue instanceof Map)) return null;
             Map<?, ?> raw = (Map<?, ?>) yamlValue;
-            Map newMap = (Map) TypeUtils.newDefaultContainer(targetType);
+            Map newMap = (Map) TypeUtils.newDefaultContainer(targetType, genericType);
+            Object first = remember(yamlValue, boundType, newMap);
+            if (first != newMap) return first;
 
             Type valueGenericType = TypeUtils.getMapValueGenericType(genericType);
             Class<?> valueType = valueGenericType != null ? TypeUtils.getRawClass(valueGenericType) : null;
-
-            for (Map.Entry<?, ?> en : raw.entrySet()) {
-                Object v = en.getValue();
-                Object converted = v;
-
-                if (valueType != null && valueType != Object.class) {
-                    if (TypeUtils.isCollectionOrMap(valueType)) {
-                        converted = materializeContainerFromYaml(v, valueType, valueGenericType);
-                    } else if (v instanceof Map && !TypeUtils.isSimpleType(valueType)) {
-                        converted = buildPojoFromMap(valueType, (Map<String, Object>) v);
-                    } else {
-                        converted = convertToType(v, valueType);
-                    }
-                } else if (v instanceof Map) {
-                    converted = tryBuildPojoFromUnknownMap(v);
+            Class<?> keyType = TypeUtils.getRawClass(TypeUtils.getMapKeyGenericType(genericType));
+            boolean enumKeys = keyType != null && keyType.isEnum();
+
+            if (isParallel(raw.size(), valueType)) {
+                Object[] keys = raw.keySet().toArray();
+                Object[] values = convertAll(raw.values().toArray(), valueType, valueGenericType);
+                for (int i = 0; i < keys.length; i++) {
+                    newMap.put(enumKeys ? TypeUtils.coerce(keys[i], keyType) : keys[i], values[i]);
                 }
+                return newMap;
+            }
 
-                newMap.put(en.getKey(), converted);
+            for (Map.Entry<?, ?> en : raw.entrySet()) {
+                Object converted = convertElement(en.getValue(), valueType, valueGenericType);
+                newMap.put(enumKeys ? TypeUtils.coerce(en.getKey(), keyType) : en.getKey(), converted);
             }
 
             return newMap;
@@ -178,37 +253,287 @@ final class ConfigReader {
         if (Collection.class.isAssignableFrom(targetType)) {
             if (!(yamlValue instanceof Collection)) return null;
             Collection<?> raw = (Collection<?>) yamlValue;
-            Collection newCol = (Collection) TypeUtils.newDefaultContainer(targetType);
+            Collection newCol = (Collection) TypeUtils.newDefaultContainer(targetType, genericType);
+            Object first = remember(yamlValue, boundType, newCol);
+            if (first != newCol) return first;
 
             Type elemGenericType = TypeUtils.getCollectionElementGenericType(genericType);
             Class<?> elemType = elemGenericType != null ? TypeUtils.getRawClass(elemGenericType) : null;
 
+            if (isParallel(raw.size(), elemType)) {
+                newCol.addAll(Arrays.asList(convertAll(raw.toArray(), elemType, elemGenericType)));
+                return newCol;
+            }
+
             for (Object v : raw) {
-                Object converted;
-                if (elemType == null || elemType == Object.class) {
-                    converted = v;
-                } else if (TypeUtils.isCollectionOrMap(elemType)) {
-                    converted = materializeContainerFromYaml(v, elemType, elemGenericType);
-                } else if (v instanceof Map && !TypeUtils.isSimpleType(elemType)) {
-                    converted = buildPojoFromMap(elemType, (Map<String, Object>) v);
-                } else {
-                    converted = convertToType(v, elemType);
+                newCol.add(convertElement(v, elemType, elemGenericType));
+            }
+            return newCol;
+        }
+
+        return null;
+    }
+
+    // only elements that are objects or containers themselves are worth the hand-off
+    private boolean isParallel(int size, Class<?> elemType) {
+        return parallelThreshold > 0 && size >= parallelThreshold
+                && elemType != null && elemType != Object.class && !TypeUtils.isSimpleType(elemType);
+    }
+
+    /**
+     * Converts the elements on the fork-join pool, the result keeps the order of {@code raw}.
+     */
+    private Object[] convertAll(Object[] raw, Class<?> elemType, Type elemGenericType) {
+        Object[] out = new Object[raw.length];
+        int chunk = Math.max(256, raw.length / (pool.getParallelism() * 4));
+        pool.invoke(new ConvertTask(raw, out, 0, raw.length, chunk, elemType, elemGenericType));
+        return out;
+    }
+
+    private final class ConvertTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] raw;
+        private final Object[] out;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final Class<?> elemType;
+        private final Type elemGenericType;
+
+        ConvertTask(Object[] raw, Object[] out, int from, int to, int chunk, Class<?> elemType, Type elemGenericType) {
+            this.raw = raw;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.elemType = elemType;
+            this.elemGenericType = elemGenericType;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                ConfigReader worker = new ConfigReader(ConfigReader.this);
+                for (int i = from; i < to; i++) {
+                    out[i] = worker.convertElement(raw[i], elemType, elemGenericType);
                 }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ConvertTask(raw, out, from, mid, chunk, elemType, elemGenericType),
+                    new ConvertTask(raw, out, mid, to, chunk, elemType, elemGenericType));
+        }
+    }
+
+    /**
+     * Converts a single list element or map value to the container's declared element type.
+     */
+    @SuppressWarnings("unchecked")
+    Object convertElement(Object v, Class<?> elemType, Type elemGenericType) {
+        if (elemType == null || elemType == Object.class) {
+            return (v instanceof Map) ? tryBuildPojoFromUnknownMap(v) : v;
+        }
+        if (TypeUtils.isCollectionOrMap(elemType)) {
+            return materializeContainerFromYaml(v, elemType, elemGenericType);
+        }
+        if (v instanceof Map && !TypeUtils.isSimpleType(elemType)
+                && TypeUtils.findSerializerFor(elemType, serializers) == null) {
+            return buildPojoFromMap(elemType, (Map<String, Object>) v);
+        }
+        return convertToType(v, elemType);
+    }
+
+    // ── Rebinding into existing instances ───────────────────────────────
 
-                newCol.add(converted);
+    /**
+     * Updates {@code target} in place from {@code raw}: scalar fields are overwritten, nested objects and
+     * containers are reused whenever their type still fits and only new or changed entries are allocated.
+     * Fields whose key is absent keep their current value, apart from containers which are emptied, like
+     * {@link #processObject} does for a fresh instance.
+     */
+    void bindInto(Object target, Class<?> type, Map<String, Object> raw) {
+        bindInto(target, type, raw, Set.of());
+    }
+
+    /**
+     * @param skippedKeys keys whose fields are left as they are, the caller knows their values did not change
+     */
+    void bindInto(Object target, Class<?> type, Map<String, Object> raw, Set<String> skippedKeys) {
+        // an object reachable twice (alias or cycle) is only updated once
+        if (!rebound.add(target)) return;
+        remember(raw, type, target);
+        Set<String> processed = new HashSet<>();
+        for (Field field : TypeUtils.getAllFields(type)) {
+            if (!processed.add(field.getName())) continue;
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers)) continue;
+            if (field.isAnnotationPresent(IgnoreField.class)) continue;
+            if (field.getType() == ObjectNode.class) continue;
+            if (!skippedKeys.isEmpty() && skippedKeys.contains(TypeUtils.resolveKey(field))) continue;
+            field.setAccessible(true);
+            try {
+                rebindField(target, field, raw);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
             }
-            return newCol;
         }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebindField(Object target, Field field, Map<String, Object> raw) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        Object rv = raw.get(TypeUtils.resolveKey(field));
+        Object current = field.get(target);
+
+        if (TypeUtils.isSimpleType(type)) {
+            if (TypeUtils.isPrimitiveArray(type) && current != null && rv instanceof Collection<?> col
+                    && Array.getLength(current) == col.size()) {
+                TypeUtils.fillPrimitiveArray(col, current);
+                return;
+            }
+            processPrimitive(target, field, raw);
+            return;
+        }
+
+        if (current != null && TypeUtils.findSerializerFor(type, serializers) == null) {
+            if (TypeUtils.isCollectionOrMap(type)) {
+                Object rebound = rebindContainer(current, rv, field.getGenericType());
+                if (rebound != null) {
+                    if (rebound != current) field.set(target, rebound);
+                    return;
+                }
+            } else if (rv instanceof Map && isReusable(current, type)) {
+                bindInto(current, current.getClass(), (Map<String, Object>) rv);
+                return;
+            }
+        }
+
+        Object before = current;
+        processObject(target, field, raw, target);
+        // immutable values that did not change keep their old identity
+        Object after = field.get(target);
+        if (before != null && after != null && before != after && ConstructorBinding.of(after.getClass()) != null
+                && before.equals(after)) {
+            field.set(target, before);
+        }
+    }
+
+    private boolean isReusable(Object current, Class<?> declared) {
+        Class<?> actual = current.getClass();
+        return declared.isInstance(current)
+                && !TypeUtils.isSimpleType(actual)
+                && !TypeUtils.isCollectionOrMap(actual)
+                && ConstructorBinding.of(actual) == null
+                && TypeUtils.findSerializerFor(actual, serializers) == null;
+    }
+
+    /**
+     * @return the container to keep in the field, {@code current} itself when it could be reused, or null when
+     * the caller should materialize a new one
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object rebindContainer(Object current, Object rv, Type genericType) {
+        try {
+            if (current instanceof Map currentMap) {
+                if (rv == null) {
+                    currentMap.clear();
+                    return current;
+                }
+                if (!(rv instanceof Map<?, ?> rawMap)) return null;
+
+                Type valueGenericType = TypeUtils.getMapValueGenericType(genericType);
+                Class<?> valueType = valueGenericType != null ? TypeUtils.getRawClass(valueGenericType) : null;
+                Class<?> keyType = TypeUtils.getRawClass(TypeUtils.getMapKeyGenericType(genericType));
+                boolean enumKeys = keyType != null && keyType.isEnum();
+
+                Object[] keys = new Object[rawMap.size()];
+                Object[] values = new Object[rawMap.size()];
+                boolean sameOrder = currentMap.size() == rawMap.size();
+                Iterator<?> currentKeys = currentMap.keySet().iterator();
+                int i = 0;
+                for (Map.Entry<?, ?> en : rawMap.entrySet()) {
+                    Object key = enumKeys ? TypeUtils.coerce(en.getKey(), keyType) : en.getKey();
+                    if (sameOrder && !Objects.equals(currentKeys.next(), key)) sameOrder = false;
+                    keys[i] = key;
+                    values[i++] = rebindElement(currentMap.get(key), en.getValue(), valueType, valueGenericType);
+                }
+                if (!sameOrder) currentMap.clear();
+                for (i = 0; i < keys.length; i++) {
+                    if (!sameOrder || currentMap.get(keys[i]) != values[i]) currentMap.put(keys[i], values[i]);
+                }
+                return current;
+            }
+
+            if (current instanceof Collection currentCol) {
+                if (rv == null) {
+                    currentCol.clear();
+                    return current;
+                }
+                if (!(rv instanceof Collection<?> rawCol)) return null;
+
+                Type elemGenericType = TypeUtils.getCollectionElementGenericType(genericType);
+                Class<?> elemType = elemGenericType != null ? TypeUtils.getRawClass(elemGenericType) : null;
+
+                if (current instanceof List currentList) {
+                    int i = 0;
+                    for (Object v : rawCol) {
+                        Object previous = i < currentList.size() ? currentList.get(i) : null;
+                        Object value = rebindElement(previous, v, elemType, elemGenericType);
+                        if (i < currentList.size()) {
+                            if (value != previous) currentList.set(i, value);
+                        } else {
+                            currentList.add(value);
+                        }
+                        i++;
+                    }
+                    while (currentList.size() > i) currentList.remove(currentList.size() - 1);
+                    return current;
+                }
 
+                List<Object> values = new ArrayList<>(rawCol.size());
+                for (Object v : rawCol) values.add(convertElement(v, elemType, elemGenericType));
+                currentCol.clear();
+                currentCol.addAll(values);
+                return current;
+            }
+        } catch (UnsupportedOperationException e) {
+            // immutable container, fall back to a fresh one
+        }
         return null;
     }
 
+    @SuppressWarnings("unchecked")
+    private Object rebindElement(Object previous, Object v, Class<?> elemType, Type elemGenericType) {
+        if (previous != null && elemType != null && elemType != Object.class) {
+            if (TypeUtils.isCollectionOrMap(elemType)) {
+                Object rebound = rebindContainer(previous, v, elemGenericType);
+                if (rebound != null) return rebound;
+            } else if (v instanceof Map && isReusable(previous, elemType)) {
+                bindInto(previous, previous.getClass(), (Map<String, Object>) v);
+                return previous;
+            }
+        }
+        Object converted = convertElement(v, elemType, elemGenericType);
+        return (previous != null && converted != null && ConstructorBinding.of(converted.getClass()) != null
+                && previous.equals(converted)) ? previous : converted;
+    }
+
+
     @SuppressWarnings("unchecked")
     private Object tryBuildPojoFromUnknownMap(Object v) {
         if (!(v instanceof Map<?, ?> map)) return v;
         return map;
     }
 
+    // streaming serializers read the parsed mapping in place, the ObjectNode contract needs a copy of it
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object deserialize(ObjectSerializer serializer, Map<String, Object> raw) {
+        if (serializer instanceof StreamingSerializer streaming) return streaming.read(new FieldReader(raw));
+        return serializer.deserialize(new ObjectNode(raw));
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     Object convertToType(Object raw, Class<?> targetType) {
         if (raw == null) return null;
@@ -221,11 +546,9 @@ final class ConfigReader {
         ObjectSerializer serializer = TypeUtils.findSerializerFor(targetType, serializers);
         if (serializer != null) {
             if (raw instanceof Map) {
-                ObjectNode node = new ObjectNode((Map<String, Object>) raw);
-                return serializer.deserialize(node);
+                return deserialize(serializer, (Map<String, Object>) raw);
             } else {
-                ObjectNode node = new ObjectNode(Map.of("value", raw));
-                return serializer.deserialize(node);
+                return deserialize(serializer, Map.of("value", raw));
             }
         }
 
@@ -236,8 +559,53 @@ final class ConfigReader {
         return raw;
     }
 
+    /**
+     * Creates an immutable config object in one call through its record or {@code @ConfigConstructor}
+     * constructor. Missing keys become zero for primitives, empty containers for collections and maps, and
+     * null for everything else.
+     */
+    Object construct(ConstructorBinding binding, Map<String, Object> raw) {
+        Class<?> type = binding.constructor.getDeclaringClass();
+        Object shared = boundTo(raw, type);
+        if (shared != null) return shared;
+        // the arguments have to exist before the instance does, so an immutable object can not contain itself
+        if (!constructing.add(raw)) {
+            throw new RuntimeException("[RozsConfig] Cyclic reference can not be bound to immutable class '" + type.getName() + "'");
+        }
+        Object[] args = new Object[binding.keys.length];
+        for (int i = 0; i < args.length; i++) {
+            Class<?> pt = binding.types[i];
+            Object rv = raw.get(binding.keys[i]);
+            if (rv == null) {
+                if (pt.isPrimitive()) args[i] = Array.get(Array.newInstance(pt, 1), 0);
+                else if (TypeUtils.isCollectionOrMap(pt)) args[i] = TypeUtils.newDefaultContainer(pt, binding.genericTypes[i]);
+                continue;
+            }
+            if (TypeUtils.isSimpleType(pt)) {
+                args[i] = TypeUtils.coerce(rv, pt);
+            } else if (TypeUtils.isCollectionOrMap(pt)) {
+                args[i] = materializeContainerFromYaml(rv, pt, binding.genericTypes[i]);
+            } else {
+                args[i] = convertToType(rv, pt);
+            }
+        }
+        try {
+            return remember(raw, type, binding.constructor.newInstance(args));
+        } catch (Exception e) {
+            Throwable cause = (e instanceof InvocationTargetException ite) ? ite.getCause() : e;
+            throw new RuntimeException("[RozsConfig] Properties could not be mapped to class '"
+                    + type.getName() + "': " + cause.getMessage(), cause);
+        } finally {
+            constructing.remove(raw);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     Object buildPojoFromMap(Class<?> type, Map<String, Object> raw) {
+        ConstructorBinding binding = ConstructorBinding.of(type);
+        if (binding != null) return construct(binding, raw);
+        Object shared = boundTo(raw, type);
+        if (shared != null) return shared;
         try {
             Object obj;
             Constructor<?> ctor;
@@ -245,6 +613,8 @@ final class ConfigReader {
                 ctor = type.getDeclaredConstructor();
                 ctor.setAccessible(true);
                 obj = ctor.newInstance();
+                Object first = remember(raw, type, obj);
+                if (first != obj) return first;
             } catch (NoSuchMethodException e) {
                 // Instead of swallowing the error, we provide info and throw an exception
                 throw new RuntimeException("[RozsConfig] Class '" + type.getName() + "' does not have a no-args constructor! Class could not be instantiated.");
@@ -280,6 +650,10 @@ final class ConfigReader {
 
     @SuppressWarnings("unchecked")
     Object buildPojoFromMapWithField(Class<?> type, Field owningField, Map<String, Object> raw) {
+        ConstructorBinding binding = ConstructorBinding.of(type);
+        if (binding != null) return construct(binding, raw);
+        Object shared = boundTo(raw, type);
+        if (shared != null) return shared;
         try {
             Object obj;
             Constructor<?> ctor;
@@ -287,6 +661,8 @@ final class ConfigReader {
                 ctor = type.getDeclaredConstructor();
                 ctor.setAccessible(true);
                 obj = ctor.newInstance();
+                Object first = remember(raw, type, obj);
+                if (first != obj) return first;
             } catch (NoSuchMethodException e) {
                 throw new RuntimeException("[RozsConfig] Class '" + type.getName() + "' does not have a no-args constructor! Class could not be instantiated.");
             }
@@ -0,0 +1,269 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.annotations.ConfigKey;
+import net.weesli.rozsconfig.format.KeySymbols;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * A config declared as an interface of getters and read through a proxy, see {@link ConfigMapper#view()}.
+ * <p>
+ * Every getter owns a slot in a snapshot of the merged tree that is converted to the getter's return type once,
+ * when the snapshot is compiled. A call is a slot lookup and an array read; {@link #reload()} compiles a new
+ * snapshot and swaps a single reference, so proxies handed out earlier, nested ones included, see the new
+ * values without anything being rebound.
+ * <p>
+ * Keys are the method names, or the {@link ConfigKey} of the method. A getter returning another interface is a
+ * nested view over that section. A {@code default} method runs its own body while the file has no value for its
+ * key, an abstract getter then returns zero, an empty container or null. Returned lists, sets and maps are
+ * read-only.
+ *
+ * @author Weesli
+ **/
+public final class ConfigView<T> {
+
+    // a key the file does not have
+    private static final Object MISSING = new Object();
+
+    private final ConfigMapper mapper;
+    private final Layout layout;
+    private final T proxy;
+    private volatile Snapshot snapshot;
+
+    ConfigView(ConfigMapper mapper, Class<T> type) {
+        this.mapper = mapper;
+        this.layout = Layout.of(type);
+        this.proxy = type.cast(newProxy(layout, new int[0]));
+    }
+
+    /**
+     * @return the live view, the same instance for the whole life of this object
+     */
+    public T get() {
+        return proxy;
+    }
+
+    /**
+     * Reads the file again and swaps the snapshot the view reads from. A failed reload leaves the previous
+     * snapshot in place.
+     */
+    public ConfigView<T> reload() {
+        ConfigReader reader = new ConfigReader(mapper.serializers());
+        snapshot = compile(layout, mapper.buildTree(), reader, new IdentityHashMap<>());
+        return this;
+    }
+
+    private Object newProxy(Layout layout, int[] path) {
+        return Proxy.newProxyInstance(layout.type.getClassLoader(), new Class<?>[]{layout.type}, new Handler(layout, path));
+    }
+
+    // ── Snapshot ────────────────────────────────────────────────────────
+
+    private record Snapshot(Object[] values) {}
+
+    // compiled is keyed by the raw section and the layout reading it, so a section aliased under the same interface
+    // becomes one snapshot and a cyclic one ends here, while one read through two interfaces gets a snapshot each
+    private static Snapshot compile(Layout layout, Map<?, ?> raw, ConfigReader reader, Map<Object, Map<Layout, Snapshot>> compiled) {
+        Map<Layout, Snapshot> byLayout = compiled.computeIfAbsent(raw, k -> new HashMap<>(2));
+        Snapshot known = byLayout.get(layout);
+        if (known != null) return known;
+        Snapshot snapshot = new Snapshot(new Object[layout.keys.length]);
+        byLayout.put(layout, snapshot);
+        for (int i = 0; i < layout.keys.length; i++) {
+            Object rv = raw.get(layout.keys[i]);
+            snapshot.values[i] = (rv == null) ? MISSING : convert(layout, i, rv, reader, compiled);
+        }
+        return snapshot;
+    }
+
+    private static Object convert(Layout layout, int slot, Object rv, ConfigReader reader, Map<Object, Map<Layout, Snapshot>> compiled) {
+        Class<?> type = layout.types[slot];
+        if (layout.nested[slot]) {
+            return (rv instanceof Map<?, ?> section) ? compile(Layout.of(type), section, reader, compiled) : MISSING;
+        }
+        if (TypeUtils.isSimpleType(type)) return TypeUtils.coerce(rv, type);
+        if (TypeUtils.isCollectionOrMap(type)) {
+            Object container = reader.materializeContainerFromYaml(rv, type, layout.genericTypes[slot]);
+            if (container instanceof List<?> list) return Collections.unmodifiableList(list);
+            if (container instanceof Set<?> set) return Collections.unmodifiableSet(set);
+            if (container instanceof Map<?, ?> map) return Collections.unmodifiableMap(map);
+            return container;
+        }
+        return reader.convertToType(rv, type);
+    }
+
+    // ── Proxy ───────────────────────────────────────────────────────────
+
+    private final class Handler implements InvocationHandler {
+
+        private final Layout layout;
+        // slots leading from the root snapshot to the section this handler reads
+        private final int[] path;
+        // nested views, created on first use and kept, so they stay live across reloads
+        private final Object[] children;
+        // section found for the last root snapshot seen, walked again only after a reload
+        private Section section;
+
+        Handler(Layout layout, int[] path) {
+            this.layout = layout;
+            this.path = path;
+            this.children = new Object[layout.keys.length];
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            int slot = layout.slotOf(method);
+            if (slot < 0) {
+                if (method.getDeclaringClass() == Object.class) return objectMethod(proxy, method, args);
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            if (layout.nested[slot]) return child(slot);
+
+            Snapshot section = section();
+            Object value = (section != null) ? section.values[slot] : MISSING;
+            if (value != MISSING) return value;
+            return method.isDefault() ? InvocationHandler.invokeDefault(proxy, method, args) : layout.absent[slot];
+        }
+
+        private Snapshot section() {
+            Snapshot root = snapshot;
+            if (path.length == 0) return root;
+            Section known = section;
+            if (known != null && known.root == root) return known.snapshot;
+            Snapshot current = root;
+            for (int i = 0; i < path.length && current != null; i++) {
+                Object value = current.values[path[i]];
+                current = (value instanceof Snapshot nested) ? nested : null;
+            }
+            section = new Section(root, current);
+            return current;
+        }
+
+        private Object child(int slot) {
+            Object child = children[slot];
+            if (child == null) {
+                int[] childPath = Arrays.copyOf(path, path.length + 1);
+                childPath[path.length] = slot;
+                child = newProxy(Layout.of(layout.types[slot]), childPath);
+                children[slot] = child;
+            }
+            return child;
+        }
+
+        private Object objectMethod(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> layout.type.getSimpleName() + toMap();
+            };
+        }
+
+        private Map<String, Object> toMap() {
+            Snapshot section = section();
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < layout.keys.length; i++) {
+                if (layout.nested[i]) continue;
+                Object value = (section != null) ? section.values[i] : MISSING;
+                if (value != MISSING) values.put(layout.keys[i], value);
+            }
+            return values;
+        }
+    }
+
+    // one immutable pair, so a racing reader never sees a section next to the wrong root
+    private record Section(Snapshot root, Snapshot snapshot) {}
+
+    // ── Layout ──────────────────────────────────────────────────────────
+
+    /**
+     * Slot assignment of a view interface, built once per interface.
+     */
+    private static final class Layout {
+
+        private static final ClassValue<Layout> LAYOUTS = new ClassValue<>() {
+            @Override
+            protected Layout computeValue(Class<?> type) {
+                return new Layout(type);
+            }
+        };
+
+        final Class<?> type;
+        final String[] keys;
+        final Class<?>[] types;
+        final Type[] genericTypes;
+        final boolean[] nested;
+        // returned by an abstract getter whose key is missing
+        final Object[] absent;
+        // by equality, only consulted the first time a Method instance is seen
+        private final Map<Method, Integer> slots = new HashMap<>();
+        // by identity over the proxy class's own Method instances, copied on write; -1 for non-getters
+        private volatile Map<Method, Integer> dispatch = new IdentityHashMap<>();
+
+        private Layout(Class<?> type) {
+            this.type = type;
+            List<Method> getters = new ArrayList<>();
+            for (Method method : type.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers())) continue;
+                if (method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+                    if (method.isDefault()) continue;
+                    throw new RuntimeException("[RozsConfig] '" + type.getName() + "." + method.getName()
+                            + "' is not a getter, view interfaces may only declare methods without parameters");
+                }
+                getters.add(method);
+            }
+            getters.sort(Comparator.comparing(Method::getName));
+
+            int n = getters.size();
+            keys = new String[n];
+            types = new Class<?>[n];
+            genericTypes = new Type[n];
+            nested = new boolean[n];
+            absent = new Object[n];
+            for (int i = 0; i < n; i++) {
+                Method method = getters.get(i);
+                Class<?> returnType = method.getReturnType();
+                keys[i] = method.isAnnotationPresent(ConfigKey.class) ? method.getAnnotation(ConfigKey.class).value() : method.getName();
+                KeySymbols.register(keys[i]);
+                types[i] = returnType;
+                genericTypes[i] = method.getGenericReturnType();
+                nested[i] = returnType.isInterface() && !TypeUtils.isSimpleType(returnType) && !TypeUtils.isCollectionOrMap(returnType);
+                if (returnType.isPrimitive()) {
+                    absent[i] = Array.get(Array.newInstance(returnType, 1), 0);
+                } else if (TypeUtils.isCollectionOrMap(returnType)) {
+                    absent[i] = emptyContainer(returnType);
+                }
+                slots.put(method, i);
+            }
+        }
+
+        /**
+         * @return the slot of a getter, or -1 for {@link Object} and non-getter default methods
+         */
+        int slotOf(Method method) {
+            Integer slot = dispatch.get(method);
+            if (slot != null) return slot;
+            slot = slots.getOrDefault(method, -1);
+            synchronized (this) {
+                Map<Method, Integer> copy = new IdentityHashMap<>(dispatch);
+                copy.put(method, slot);
+                dispatch = copy;
+            }
+            return slot;
+        }
+
+        static Layout of(Class<?> type) {
+            if (!type.isInterface()) {
+                throw new RuntimeException("[RozsConfig] '" + type.getName() + "' is not an interface, views are declared as interfaces of getters");
+            }
+            return LAYOUTS.get(type);
+        }
+
+        private static Object emptyContainer(Class<?> type) {
+            if (type.isAssignableFrom(List.class)) return List.of();
+            if (type.isAssignableFrom(Set.class)) return Set.of();
+            if (type.isAssignableFrom(Map.class)) return Map.of();
+            return null;
+        }
+    }
+}
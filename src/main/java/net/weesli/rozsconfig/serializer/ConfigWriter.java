@@ -2,10 +2,18 @@ package net.weesli.rozsconfig.serializer;
 
 import net.weesli.rozsconfig.annotations.Comment;
 import net.weesli.rozsconfig.annotations.IgnoreField;
+import net.weesli.rozsconfig.serializer.component.FieldWriter;
 import net.weesli.rozsconfig.serializer.component.ObjectNode;
 import net.weesli.rozsconfig.serializer.component.ObjectSerializer;
+import net.weesli.rozsconfig.serializer.component.StreamingSerializer;
+import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
 
+import java.io.StringReader;
 import java.lang.reflect.Field;
 import java.util.*;
 
@@ -13,6 +21,12 @@ final class ConfigWriter {
 
     private final Yaml yaml;
     private final List<ObjectSerializer<?>> serializers;
+    // source object -> its plain form, a reference met twice is converted once and SnakeYAML writes the
+    // second occurrence as an alias; registered before the children are converted, so cycles end here too.
+    // Empty and immutable containers are only registered while they are being converted, see isShareable
+    private final Map<Object, Object> plains = new IdentityHashMap<>();
+    private boolean shared;
+    private Map<String, Integer> keyLines;
 
     ConfigWriter(Yaml yaml, List<ObjectSerializer<?>> serializers) {
         this.yaml = yaml;
@@ -20,25 +34,120 @@ final class ConfigWriter {
     }
 
     void writeYamlWithComments(Object obj, StringBuilder sb) throws IllegalAccessException {
+        writeYamlWithComments(obj, toPlainTree(obj), Set.of(), sb);
+    }
+
+    /**
+     * @param root    the {@link #toPlainTree(Object) plain tree} of {@code obj}
+     * @param omitted top-level keys written elsewhere, see {@link #writeSection(Class, String, Object)}
+     */
+    void writeYamlWithComments(Object obj, Map<String, Object> root, Set<String> omitted, StringBuilder sb) {
+        if (shared) {
+            // anchors only resolve within one document, so the tree has to be dumped in one piece
+            if (!omitted.isEmpty()) {
+                root = new LinkedHashMap<>(root);
+                root.keySet().removeAll(omitted);
+            }
+            writeSharedTree(obj, root, sb);
+            return;
+        }
         for (Field field : TypeUtils.getAllFields(obj.getClass())) {
             if (field.getType() == ObjectNode.class) continue;
             if (field.isAnnotationPresent(IgnoreField.class)) continue;
-            field.setAccessible(true);
-
-            Object value = field.get(obj);
-            if (value == null) continue;
 
             String key = TypeUtils.resolveKey(field);
-            if (field.isAnnotationPresent(Comment.class)) {
-                for (String c : field.getAnnotation(Comment.class).value()) {
-                    indent(sb, 0).append("# ").append(c).append("\n");
+            if (!root.containsKey(key) || omitted.contains(key)) continue;
+
+            appendComments(sb, field);
+            writeValue(sb, 0, key, root.get(key));
+        }
+    }
+
+    /**
+     * A top-level section written as a document of its own, headed by the comments of its field.
+     */
+    String writeSection(Class<?> type, String key, Object section) {
+        StringBuilder sb = new StringBuilder();
+        for (Field field : TypeUtils.getAllFields(type)) {
+            if (TypeUtils.resolveKey(field).equals(key)) {
+                appendComments(sb, field);
+                break;
+            }
+        }
+        return sb.append(yaml.dump(section)).toString();
+    }
+
+    private void writeSharedTree(Object obj, Map<String, Object> root, StringBuilder sb) {
+        String dumped = yaml.dump(root);
+        Map<Integer, Field> commented = new HashMap<>();
+        for (Field field : TypeUtils.getAllFields(obj.getClass())) {
+            if (field.isAnnotationPresent(Comment.class)) commented.put(keyLine(dumped, TypeUtils.resolveKey(field)), field);
+        }
+        commented.remove(-1);
+
+        int line = 0;
+        int start = 0;
+        while (start < dumped.length()) {
+            int end = dumped.indexOf('\n', start);
+            end = (end < 0) ? dumped.length() : end + 1;
+            Field field = commented.get(line++);
+            if (field != null) appendComments(sb, field);
+            sb.append(dumped, start, end);
+            start = end;
+        }
+    }
+
+    // The dumped tree is our own output, so it is composed without the alias limit applied to user files
+    private int keyLine(String dumped, String key) {
+        if (keyLines == null) {
+            keyLines = new HashMap<>();
+            LoaderOptions options = new LoaderOptions();
+            options.setMaxAliasesForCollections(Integer.MAX_VALUE);
+            options.setCodePointLimit(Integer.MAX_VALUE);
+            options.setNestingDepthLimit(Integer.MAX_VALUE);
+            try {
+                Node node = new Yaml(options).compose(new StringReader(dumped));
+                if (node instanceof MappingNode mapping) {
+                    for (NodeTuple tuple : mapping.getValue()) {
+                        Node keyNode = tuple.getKeyNode();
+                        if (keyNode instanceof ScalarNode scalar) {
+                            keyLines.putIfAbsent(scalar.getValue(), keyNode.getStartMark().getLine());
+                        }
+                    }
                 }
+            } catch (Exception ignored) {
+                // comments are a nicety, the document itself is still valid
             }
+        }
+        return keyLines.getOrDefault(key, -1);
+    }
 
-            Object plain = toPlain(value);
+    private void appendComments(StringBuilder sb, Field field) {
+        if (field.isAnnotationPresent(Comment.class)) {
+            for (String c : field.getAnnotation(Comment.class).value()) {
+                indent(sb, 0).append("# ").append(c).append("\n");
+            }
+        }
+    }
+
+    /**
+     * Same field walk as {@link #writeYamlWithComments(Object, StringBuilder)}, but returns the plain tree for
+     * formats that are not written as commented YAML.
+     */
+    Map<String, Object> toPlainTree(Object obj) throws IllegalAccessException {
+        Map<String, Object> out = new LinkedHashMap<>();
+        plains.put(obj, out);
+        for (Field field : TypeUtils.getAllFields(obj.getClass())) {
+            if (field.getType() == ObjectNode.class) continue;
+            if (field.isAnnotationPresent(IgnoreField.class)) continue;
+            field.setAccessible(true);
 
-            writeValue(sb, 0, key, plain);
+            Object value = field.get(obj);
+            if (value == null) continue;
+
+            out.put(TypeUtils.resolveKey(field), toPlain(value));
         }
+        return out;
     }
 
     @SuppressWarnings("unchecked")
@@ -74,23 +183,40 @@ final class ConfigWriter {
         if (value == null) return null;
         Class<?> t = value.getClass();
 
+        if (TypeUtils.isPrimitiveArray(t)) return TypeUtils.primitiveArrayAsList(value);
         if (TypeUtils.isSimpleType(t) && !value.getClass().isEnum()) return value;
         if (TypeUtils.isSimpleType(t) && value.getClass().isEnum()) return ((Enum<?>) value).name();
 
+        Object known = plains.get(value);
+        if (known != null) {
+            shared = true;
+            return known;
+        }
+
         ObjectSerializer ser = TypeUtils.findSerializerFor(t, serializers);
+        if (ser instanceof StreamingSerializer streaming) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            streaming.write(value, new FieldWriter(out));
+            plains.put(value, out);
+            return out;
+        }
         if (ser != null) {
             ObjectNode node = new ObjectNode(new LinkedHashMap<>());
             ser.serialize(value, node);
+            plains.put(value, node.getVariableMap());
             return node.getVariableMap();
         }
 
         if (value instanceof Map<?,?> map) {
             Map<Object,Object> out = new LinkedHashMap<>();
+            plains.put(value, out);
             for (Map.Entry<?,?> e : map.entrySet()) {
                 Object k = e.getKey();
+                if (k instanceof Enum<?> en) k = en.name();
                 Object v = e.getValue();
                 out.put(k, toPlain(v));
             }
+            if (!isShareable(map)) plains.remove(value);
             return out;
         }
 
@@ -100,11 +226,14 @@ final class ConfigWriter {
 
         if (value instanceof Collection<?> col) {
             List<Object> out = new ArrayList<>(col.size());
+            plains.put(value, out);
             for (Object v : col) out.add(toPlain(v));
+            if (!isShareable(col)) plains.remove(value);
             return out;
         }
 
         Map<String,Object> out = new LinkedHashMap<>();
+        plains.put(value, out);
         for (Field f : TypeUtils.getAllFields(t)) {
             try {
                 if (f.getType() == ObjectNode.class) continue;
@@ -116,4 +245,19 @@ final class ConfigWriter {
         }
         return out;
     }
+
+    /**
+     * Whether a container met twice is written once and aliased. Empty and immutable containers are not: they are
+     * often the same singleton ({@code List.of()}) in fields that were never meant to share a value, and binding
+     * the alias would turn them into one mutable container.
+     */
+    private static boolean isShareable(Object container) {
+        if (container instanceof Collection<?> col && col.isEmpty()) return false;
+        if (container instanceof Map<?, ?> map && map.isEmpty()) return false;
+        String name = container.getClass().getName();
+        return !name.startsWith("java.util.ImmutableCollections$")
+                && !name.startsWith("java.util.Collections$Unmodifiable")
+                && !name.startsWith("java.util.Collections$Empty")
+                && !name.startsWith("java.util.Collections$Singleton");
+    }
 }
@@ -0,0 +1,87 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.annotations.ConfigConstructor;
+import net.weesli.rozsconfig.annotations.ConfigKey;
+
+import java.lang.reflect.*;
+import java.util.Optional;
+
+/**
+ * Parameter-to-key mapping of a record's canonical constructor or a {@link ConfigConstructor}, resolved once
+ * per type and cached, so immutable config types can be created in a single constructor call.
+ */
+final class ConstructorBinding {
+
+    private static final ClassValue<Optional<ConstructorBinding>> CACHE = new ClassValue<>() {
+        @Override
+        protected Optional<ConstructorBinding> computeValue(Class<?> type) {
+            return Optional.ofNullable(resolve(type));
+        }
+    };
+
+    final Constructor<?> constructor;
+    final String[] keys;
+    final Class<?>[] types;
+    final Type[] genericTypes;
+
+    private ConstructorBinding(Constructor<?> constructor, String[] keys) {
+        constructor.setAccessible(true);
+        this.constructor = constructor;
+        this.keys = keys;
+        this.types = constructor.getParameterTypes();
+        this.genericTypes = constructor.getGenericParameterTypes();
+    }
+
+    /**
+     * @return the binding for the given type, or null when it is bound through its no-args constructor
+     */
+    static ConstructorBinding of(Class<?> type) {
+        return CACHE.get(type).orElse(null);
+    }
+
+    private static ConstructorBinding resolve(Class<?> type) {
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            String[] keys = new String[components.length];
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+                try {
+                    keys[i] = TypeUtils.resolveKey(type.getDeclaredField(components[i].getName()));
+                } catch (NoSuchFieldException e) {
+                    keys[i] = components[i].getName();
+                }
+            }
+            try {
+                return new ConstructorBinding(type.getDeclaredConstructor(parameterTypes), keys);
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException("[RozsConfig] Record '" + type.getName() + "' has no canonical constructor!", e);
+            }
+        }
+
+        Constructor<?> annotated = null;
+        for (Constructor<?> ctor : type.getDeclaredConstructors()) {
+            if (!ctor.isAnnotationPresent(ConfigConstructor.class)) continue;
+            if (annotated != null) {
+                throw new RuntimeException("[RozsConfig] Class '" + type.getName() + "' has more than one @ConfigConstructor!");
+            }
+            annotated = ctor;
+        }
+        if (annotated == null) return null;
+
+        Parameter[] parameters = annotated.getParameters();
+        String[] keys = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            if (parameter.isAnnotationPresent(ConfigKey.class)) {
+                keys[i] = parameter.getAnnotation(ConfigKey.class).value();
+            } else if (parameter.isNamePresent()) {
+                keys[i] = parameter.getName();
+            } else {
+                throw new RuntimeException("[RozsConfig] Parameter " + i + " of the @ConfigConstructor in '" + type.getName()
+                        + "' needs a @ConfigKey, or the class must be compiled with -parameters.");
+            }
+        }
+        return new ConstructorBinding(annotated, keys);
+    }
+}
@@ -10,35 +10,136 @@ final class DeepMerger {
 
     private DeepMerger() {}
 
-    @SuppressWarnings("unchecked")
     static void deepMergeDefaultsIntoCurrent(Map<String, Object> defaults, Map<String, Object> current, String path, Set<String> changeablePrefixes) {
+        deepMergeDefaultsIntoCurrent(defaults, current, path, changeablePrefixes, null, null, newIdentitySet());
+    }
+
+    /**
+     * Same as {@link #deepMergeDefaultsIntoCurrent(Map, Map, String, Set)}, but records every key that was added
+     * to {@code current} into {@code additions} (when not null), so callers can patch the source document
+     * instead of re-dumping the whole tree.
+     */
+    static void deepMergeDefaultsIntoCurrent(Map<String, Object> defaults, Map<String, Object> current, String path, Set<String> changeablePrefixes, List<Addition> additions) {
+        deepMergeDefaultsIntoCurrent(defaults, current, path, changeablePrefixes, additions, additions != null ? new ArrayList<>() : null, newIdentitySet());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void deepMergeDefaultsIntoCurrent(Map<String, Object> defaults, Map<String, Object> current, String path, Set<String> changeablePrefixes, List<Addition> additions, List<Object> keyPath, Set<Object> merging) {
         if (defaults == null) return;
         if (current == null) return;
+        // an aliased mapping that contains itself has already been merged further up
+        if (!merging.add(current)) return;
+        Object previousKey = null;
         for (Map.Entry<String, Object> e : defaults.entrySet()) {
             String key = e.getKey();
             String fullPath = path.isEmpty() ? key : path + "." + key;
             if (!current.containsKey(key)) {
-                current.put(key, e.getValue());
+                // copied so the defaults tree can be shared between concurrent merges without ever being mutated
+                current.put(key, copyTree(e.getValue()));
+                if (additions != null) {
+                    additions.add(new Addition(List.copyOf(keyPath), key, e.getValue(), previousKey));
+                }
                 continue;
             }
+            previousKey = key;
             Object dVal = e.getValue();
             Object cVal = current.get(key);
             boolean ignoreChildren = changeablePrefixes.contains(fullPath);
 
             if (!ignoreChildren && dVal instanceof Map && cVal instanceof Map) {
+                if (keyPath != null) keyPath.add(key);
                 deepMergeDefaultsIntoCurrent(
                         (Map<String, Object>) dVal,
                         (Map<String, Object>) cVal,
                         fullPath,
-                        changeablePrefixes
+                        changeablePrefixes,
+                        additions,
+                        keyPath,
+                        merging
                 );
+                if (keyPath != null) keyPath.remove(keyPath.size() - 1);
             }
             else if (!ignoreChildren && dVal instanceof Collection<?> defaultCol && cVal instanceof Collection<?> currentCol) {
                 if (currentCol.isEmpty() && !defaultCol.isEmpty()) {
-                    current.put(key, new ArrayList<>(defaultCol));
+                    current.put(key, copyTree(defaultCol));
+                    if (additions != null) {
+                        additions.add(new Addition(List.copyOf(keyPath), key, defaultCol, previousKey, true));
+                    }
                 }
             }
         }
+        merging.remove(current);
+    }
+
+    /**
+     * Deep copy of a parsed tree. Cycles are kept, but repeated subtrees are copied separately: a retained
+     * defaults tree may share equal subtrees (see {@link RetentionMode#COMPACT}) that must not end up as one
+     * shared config object.
+     */
+    static Object copyTree(Object value) {
+        if (!(value instanceof Map) && !(value instanceof Collection)) return value;
+        return copyTree(value, new IdentityHashMap<>());
+    }
+
+    private static Object copyTree(Object value, Map<Object, Object> copying) {
+        Object cyclic = copying.get(value);
+        if (cyclic != null) return cyclic;
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> out = new LinkedHashMap<>(Math.max(16, (int) (map.size() / 0.75f) + 1));
+            copying.put(value, out);
+            for (Map.Entry<?, ?> e : map.entrySet()) out.put(e.getKey(), copyTree(e.getValue(), copying));
+            copying.remove(value);
+            return out;
+        }
+        if (value instanceof Collection<?> col) {
+            List<Object> out = new ArrayList<>(col.size());
+            copying.put(value, out);
+            for (Object v : col) out.add(copyTree(v, copying));
+            copying.remove(value);
+            return out;
+        }
+        return value;
+    }
+
+    /**
+     * @return true if a map or list of the tree contains itself, such a tree can only be written as YAML
+     */
+    static boolean isCyclic(Object tree) {
+        return isCyclic(tree, newIdentitySet(), newIdentitySet());
+    }
+
+    private static boolean isCyclic(Object value, Set<Object> path, Set<Object> done) {
+        if (!(value instanceof Map) && !(value instanceof Collection)) return false;
+        if (done.contains(value)) return false;
+        if (!path.add(value)) return true;
+        Collection<?> children = (value instanceof Map<?, ?> map) ? map.values() : (Collection<?>) value;
+        for (Object child : children) {
+            if (isCyclic(child, path, done)) return true;
+        }
+        path.remove(value);
+        done.add(value);
+        return false;
+    }
+
+    private static Set<Object> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * A key that was missing from the current tree and has been copied over from the defaults, or an empty list
+     * that has been refilled from them.
+     *
+     * @param parentPath  keys leading to the mapping the key was added to, empty for the root
+     * @param key         the added key
+     * @param value       the added value
+     * @param previousKey the closest preceding key (in default order) that already existed, or null if none did
+     * @param replace     true if the key already existed and only its value was replaced
+     */
+    record Addition(List<Object> parentPath, Object key, Object value, Object previousKey, boolean replace) {
+
+        Addition(List<Object> parentPath, Object key, Object value, Object previousKey) {
+            this(parentPath, key, value, previousKey, false);
+        }
     }
 
     static Set<String> collectChangeableMapPrefixes(Class<?> root, Map<String, Object> currentValues) {
@@ -0,0 +1,190 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.annotations.Comment;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.*;
+
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * Inserts keys added by {@link DeepMerger} straight into the original YAML text.
+ * <p>
+ * The existing document is composed into a SnakeYAML {@link Node} tree only to find line positions, every
+ * missing key is dumped on its own (with the {@link Comment} of its field) and spliced in after its closest
+ * preceding sibling. A refilled empty list replaces only the lines of its own entry. Every other line that was
+ * already in the file is left untouched, so user comments and formatting survive the update.
+ */
+final class DocumentPatcher {
+
+    private DocumentPatcher() {}
+
+    /**
+     * @return the patched document, or null when the document layout is not supported (flow mappings,
+     * multiple documents, non-mapping root...) and the caller should fall back to a full dump.
+     */
+    static String patch(Yaml yaml, String document, List<DeepMerger.Addition> additions, Type rootType) {
+        if (additions.isEmpty()) return document;
+        Node root;
+        try {
+            root = yaml.compose(new StringReader(document));
+        } catch (Exception e) {
+            return null;
+        }
+        if (!(root instanceof MappingNode)) return null;
+
+        String newline = document.contains("\r\n") ? "\r\n" : "\n";
+        List<String> lines = splitLines(document);
+        // line index -> text inserted before it, kept in merge order
+        TreeMap<Integer, StringBuilder> inserts = new TreeMap<>();
+        // lines of replaced entries
+        Set<Integer> removed = new HashSet<>();
+
+        for (DeepMerger.Addition addition : additions) {
+            MappingNode parent = findMapping((MappingNode) root, addition.parentPath());
+            if (parent == null || parent.getFlowStyle() == DumperOptions.FlowStyle.FLOW || parent.getValue().isEmpty()) {
+                return null;
+            }
+
+            int indent = parent.getValue().get(0).getKeyNode().getStartMark().getColumn();
+            if (addition.replace()) {
+                NodeTuple replaced = findTuple(parent, addition.key());
+                if (replaced == null) return null;
+                int first = replaced.getKeyNode().getStartMark().getLine();
+                int end = lineAfter(replaced.getValueNode());
+                for (int i = first; i < end; i++) {
+                    if (!removed.add(i)) return null;
+                }
+                appendEntry(yaml, inserts.computeIfAbsent(first, l -> new StringBuilder()), indent, addition, null, newline);
+                continue;
+            }
+
+            int line;
+            if (addition.previousKey() != null) {
+                NodeTuple previous = findTuple(parent, addition.previousKey());
+                if (previous == null) return null;
+                line = lineAfter(previous.getValueNode());
+            } else {
+                line = parent.getValue().get(0).getKeyNode().getStartMark().getLine();
+            }
+
+            StringBuilder sb = inserts.computeIfAbsent(line, l -> new StringBuilder());
+            appendEntry(yaml, sb, indent, addition, rootType, newline);
+        }
+
+        StringBuilder out = new StringBuilder(document.length() + 256);
+        for (int i = 0; i < lines.size(); i++) {
+            StringBuilder insert = inserts.remove(i);
+            if (insert != null) out.append(insert);
+            if (!removed.contains(i)) out.append(lines.get(i));
+        }
+        // whatever is left goes after the last line
+        for (StringBuilder insert : inserts.values()) {
+            if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') out.append(newline);
+            out.append(insert);
+        }
+        return out.toString();
+    }
+
+    private static void appendEntry(Yaml yaml, StringBuilder sb, int indent, DeepMerger.Addition addition, Type rootType, String newline) {
+        String pad = " ".repeat(indent);
+        // a replaced entry keeps the comments already above it
+        Field field = (rootType != null) ? findField(rootType, addition.parentPath(), addition.key()) : null;
+        if (field != null && field.isAnnotationPresent(Comment.class)) {
+            for (String c : field.getAnnotation(Comment.class).value()) {
+                sb.append(pad).append("# ").append(c).append(newline);
+            }
+        }
+        Map<Object, Object> single = new LinkedHashMap<>();
+        single.put(addition.key(), addition.value());
+        String dumped = yaml.dump(single);
+        for (String line : dumped.split("\n")) {
+            sb.append(pad).append(line).append(newline);
+        }
+    }
+
+    private static MappingNode findMapping(MappingNode root, List<Object> path) {
+        MappingNode current = root;
+        for (Object key : path) {
+            NodeTuple tuple = findTuple(current, key);
+            if (tuple == null || !(tuple.getValueNode() instanceof MappingNode next)) return null;
+            current = next;
+        }
+        return current;
+    }
+
+    private static NodeTuple findTuple(MappingNode mapping, Object key) {
+        String wanted = String.valueOf(key);
+        for (NodeTuple tuple : mapping.getValue()) {
+            if (tuple.getKeyNode() instanceof ScalarNode scalar && scalar.getValue().equals(wanted)) {
+                return tuple;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first line after the given value, following block collections down to their last scalar so
+     * that comments written above the next key stay attached to it.
+     */
+    private static int lineAfter(Node value) {
+        Node last = value;
+        while (true) {
+            if (last instanceof MappingNode mapping && mapping.getFlowStyle() != DumperOptions.FlowStyle.FLOW
+                    && !mapping.getValue().isEmpty()) {
+                List<NodeTuple> tuples = mapping.getValue();
+                last = tuples.get(tuples.size() - 1).getValueNode();
+            } else if (last instanceof SequenceNode sequence && sequence.getFlowStyle() != DumperOptions.FlowStyle.FLOW
+                    && !sequence.getValue().isEmpty()) {
+                List<Node> items = sequence.getValue();
+                last = items.get(items.size() - 1);
+            } else {
+                break;
+            }
+        }
+        var end = last.getEndMark();
+        // block scalars end at the start of the following line
+        return end.getColumn() == 0 ? end.getLine() : end.getLine() + 1;
+    }
+
+    private static Field findField(Type rootType, List<Object> parentPath, Object key) {
+        Type current = rootType;
+        for (Object segment : parentPath) {
+            current = childType(current, segment);
+            if (current == null) return null;
+        }
+        Class<?> raw = TypeUtils.getRawClass(current);
+        if (raw == null || TypeUtils.isSimpleType(raw) || TypeUtils.isCollectionOrMap(raw)) return null;
+        for (Field f : TypeUtils.getAllFields(raw)) {
+            if (TypeUtils.resolveKey(f).equals(String.valueOf(key))) return f;
+        }
+        return null;
+    }
+
+    private static Type childType(Type type, Object segment) {
+        Class<?> raw = TypeUtils.getRawClass(type);
+        if (raw == null || TypeUtils.isSimpleType(raw)) return null;
+        if (Map.class.isAssignableFrom(raw)) return TypeUtils.getMapValueGenericType(type);
+        if (Collection.class.isAssignableFrom(raw)) return null;
+        for (Field f : TypeUtils.getAllFields(raw)) {
+            if (TypeUtils.resolveKey(f).equals(String.valueOf(segment))) return f.getGenericType();
+        }
+        return null;
+    }
+
+    private static List<String> splitLines(String document) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < document.length(); i++) {
+            if (document.charAt(i) == '\n') {
+                lines.add(document.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < document.length()) lines.add(document.substring(start));
+        return lines;
+    }
+}
@@ -0,0 +1,154 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.ConfigFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@code <name>.d} directory next to a config file, see {@link ConfigMapper#fragments(boolean)}.
+ * <p>
+ * Every {@code <key>.<ext>} file in it holds the value of the top-level key {@code key}. Parsed fragments are
+ * cached by modification time and size, and by a SHA-256 of the content when those can not be trusted, so only
+ * a fragment that actually changed is parsed again. Cached trees are shared by every build and must not be
+ * modified once they are handed out.
+ */
+final class FragmentStore {
+
+    // a file modified this close to the moment it was read may change again without a visible timestamp change
+    private static final long TIMESTAMP_GRANULARITY_MILLIS = 2000;
+
+    private final File directory;
+    private final ConfigFormat format;
+    private final String suffix;
+    // guarded by this
+    private final Map<String, Fragment> cache = new HashMap<>();
+
+    private record Fragment(long modified, long size, long readAt, byte[] digest, Map<String, Object> tree) {}
+
+    FragmentStore(File file, ConfigFormat format) {
+        this.directory = directoryOf(file);
+        this.format = format;
+        this.suffix = "." + format.extension();
+    }
+
+    static File directoryOf(File file) {
+        File absolute = file.getAbsoluteFile();
+        String name = absolute.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(absolute.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".d");
+    }
+
+    boolean isFor(File file, ConfigFormat format) {
+        return directory.equals(directoryOf(file)) && this.format.equals(format);
+    }
+
+    File fileOf(String key) {
+        return new File(directory, key + suffix);
+    }
+
+    /**
+     * @return the keys that currently have a fragment file, in file name order
+     */
+    List<String> keys() {
+        String[] names = directory.list();
+        if (names == null) return List.of();
+        List<String> keys = new ArrayList<>();
+        for (String name : names) {
+            if (name.startsWith(".") || !name.endsWith(suffix) || name.length() == suffix.length()) continue;
+            keys.add(name.substring(0, name.length() - suffix.length()));
+        }
+        Collections.sort(keys);
+        return keys;
+    }
+
+    /**
+     * @param prepare called with the key and tree of every freshly parsed fragment before it is cached, may be null
+     * @return key -> tree for every fragment file, unchanged fragments come straight from the cache
+     */
+    synchronized Map<String, Map<String, Object>> read(BiConsumer<String, Map<String, Object>> prepare) throws IOException {
+        List<String> keys = keys();
+        cache.keySet().retainAll(keys);
+        Map<String, Map<String, Object>> trees = new LinkedHashMap<>();
+        for (String key : keys) {
+            Map<String, Object> tree = read(key, prepare);
+            if (tree != null) trees.put(key, tree);
+        }
+        return trees;
+    }
+
+    private Map<String, Object> read(String key, BiConsumer<String, Map<String, Object>> prepare) throws IOException {
+        Path path = fileOf(key).toPath();
+        BasicFileAttributes attributes;
+        byte[] data;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            Fragment cached = cache.get(key);
+            if (cached != null && cached.modified == modified && cached.size == attributes.size()
+                    && modified + TIMESTAMP_GRANULARITY_MILLIS < cached.readAt) {
+                return cached.tree;
+            }
+            data = Files.readAllBytes(path);
+        } catch (NoSuchFileException deleted) {
+            cache.remove(key);
+            return null;
+        }
+
+        long readAt = System.currentTimeMillis();
+        long modified = attributes.lastModifiedTime().toMillis();
+        byte[] digest = MergeChecksum.sha256().digest(data);
+        Fragment cached = cache.get(key);
+        if (cached != null && Arrays.equals(cached.digest, digest)) {
+            // touched but not changed
+            cache.put(key, new Fragment(modified, data.length, readAt, digest, cached.tree));
+            return cached.tree;
+        }
+
+        Map<String, Object> tree = format.read(data);
+        if (tree == null) tree = new LinkedHashMap<>();
+        if (prepare != null) prepare.accept(key, tree);
+        cache.put(key, new Fragment(modified, data.length, readAt, digest, tree));
+        return tree;
+    }
+
+    /**
+     * @return key -> tree of the fragments currently cached
+     */
+    synchronized Map<String, Map<String, Object>> cached() {
+        Map<String, Map<String, Object>> trees = new HashMap<>();
+        for (Map.Entry<String, Fragment> entry : cache.entrySet()) trees.put(entry.getKey(), entry.getValue().tree());
+        return trees;
+    }
+
+    /**
+     * Parses every fragment file without touching the cache, the trees belong to the caller.
+     */
+    Map<String, Map<String, Object>> parse() throws IOException {
+        Map<String, Map<String, Object>> trees = new LinkedHashMap<>();
+        for (String key : keys()) {
+            byte[] data;
+            try {
+                data = Files.readAllBytes(fileOf(key).toPath());
+            } catch (NoSuchFileException deleted) {
+                continue;
+            }
+            Map<String, Object> tree = format.read(data);
+            trees.put(key, (tree != null) ? tree : new LinkedHashMap<>());
+        }
+        return trees;
+    }
+
+    /**
+     * Drops every cached fragment, the next {@link #read(BiConsumer)} parses all of them again.
+     */
+    synchronized void invalidate() {
+        cache.clear();
+    }
+}
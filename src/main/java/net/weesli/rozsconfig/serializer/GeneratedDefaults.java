@@ -0,0 +1,123 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.ConfigFormat;
+import net.weesli.rozsconfig.format.YamlFormat;
+import net.weesli.rozsconfig.serializer.component.ObjectSerializer;
+import org.yaml.snakeyaml.Yaml;
+
+import java.lang.reflect.Constructor;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Defaults taken from the field initializers of a freshly constructed config instance, see
+ * {@link ConfigMapper#load()}. Generated once per class and reused by every mapper with the same format and
+ * serializers.
+ */
+final class GeneratedDefaults {
+
+    private static final ClassValue<AtomicReference<GeneratedDefaults>> CACHE = new ClassValue<>() {
+        @Override
+        protected AtomicReference<GeneratedDefaults> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private final ConfigFormat format;
+    private final List<ObjectSerializer<?>> serializers;
+    /** What a missing or empty file is created with, including the {@code @Comment} lines for YAML. */
+    final byte[] document;
+    /** Immutable tree with nullable fields removed, ready to be merged. */
+    final Map<String, Object> tree;
+
+    private GeneratedDefaults(ConfigFormat format, List<ObjectSerializer<?>> serializers, byte[] document, Map<String, Object> tree) {
+        this.format = format;
+        this.serializers = serializers;
+        this.document = document;
+        this.tree = tree;
+    }
+
+    static GeneratedDefaults of(Class<?> type, ConfigFormat format, List<ObjectSerializer<?>> serializers) {
+        AtomicReference<GeneratedDefaults> slot = CACHE.get(type);
+        GeneratedDefaults cached = slot.get();
+        if (cached != null && cached.format.equals(format) && cached.serializers.equals(serializers)) return cached;
+        GeneratedDefaults generated = generate(type, format, List.copyOf(serializers));
+        slot.set(generated);
+        return generated;
+    }
+
+    private static GeneratedDefaults generate(Class<?> type, ConfigFormat format, List<ObjectSerializer<?>> serializers) {
+        if (ConstructorBinding.of(type) != null) {
+            throw new RuntimeException("[RozsConfig] Class '" + type.getName() + "' is immutable, its defaults can not be generated from field initializers.");
+        }
+        try {
+            Constructor<?> ctor;
+            try {
+                ctor = type.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException("[RozsConfig] Class '" + type.getName() + "' does not have a no-args constructor! Class could not be instantiated.");
+            }
+            ctor.setAccessible(true);
+            Object instance = ctor.newInstance();
+
+            byte[] document;
+            if (format instanceof YamlFormat yamlFormat) {
+                StringBuilder sb = new StringBuilder();
+                Yaml yaml = yamlFormat.engine().acquire();
+                try {
+                    new ConfigWriter(yaml, serializers).writeYamlWithComments(instance, sb);
+                } finally {
+                    yamlFormat.engine().release(yaml);
+                }
+                document = sb.toString().getBytes(StandardCharsets.UTF_8);
+            } else {
+                document = format.write(new ConfigWriter(null, serializers).toPlainTree(instance));
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> tree = (Map<String, Object>) normalize(new ConfigWriter(null, serializers).toPlainTree(instance));
+            ConfigMapper.removeNullableFields(type, tree);
+            return new GeneratedDefaults(format, serializers, document, TreeCompactor.compact(tree));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("[RozsConfig] Defaults of class '" + type.getName() + "' could not be generated: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gives scalars the types a parser would produce for them, so the generated tree compares equal to the same
+     * document read back from disk. Like a parsed alias, a map or list reached twice, or from inside itself,
+     * stays one shared copy.
+     */
+    private static Object normalize(Object value) {
+        return normalize(value, new IdentityHashMap<>());
+    }
+
+    private static Object normalize(Object value, Map<Object, Object> copies) {
+        if (value instanceof Map<?, ?> map) {
+            Object copy = copies.get(value);
+            if (copy != null) return copy;
+            Map<Object, Object> out = new LinkedHashMap<>();
+            copies.put(value, out);
+            for (Map.Entry<?, ?> e : map.entrySet()) out.put(e.getKey(), normalize(e.getValue(), copies));
+            return out;
+        }
+        if (value instanceof Collection<?> col) {
+            Object copy = copies.get(value);
+            if (copy != null) return copy;
+            List<Object> out = new ArrayList<>(col.size());
+            copies.put(value, out);
+            for (Object v : col) out.add(normalize(v, copies));
+            return out;
+        }
+        if (value instanceof Float || value instanceof Double) return ((Number) value).doubleValue();
+        if (value instanceof Byte || value instanceof Short) return ((Number) value).intValue();
+        if (value instanceof Long l) return (l == l.intValue()) ? (Object) l.intValue() : l;
+        if (value instanceof BigInteger big && big.bitLength() < 64) return normalize(big.longValue(), copies);
+        if (value instanceof Character c) return c.toString();
+        return value;
+    }
+}
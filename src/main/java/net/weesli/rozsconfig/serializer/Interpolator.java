@@ -0,0 +1,238 @@
+package net.weesli.rozsconfig.serializer;
+
+import java.util.*;
+
+/**
+ * Resolves {@code ${...}} references in a merged tree, see {@link ConfigMapper#interpolate(boolean)}.
+ * <p>
+ * Every template is compiled into literal and reference parts and resolved at most once per build: references
+ * to other templates are resolved depth first and memoized by path, a reference back onto the chain that is
+ * being resolved is a cycle. The input tree is never modified, only the containers on the way to a template are
+ * copied (once each, so aliased sections stay shared), untouched subtrees are reused as they are.
+ */
+final class Interpolator {
+
+    private static final String ENV = "env:";
+    private static final String FALLBACK = ":-";
+
+    private final Map<String, Object> root;
+    // containers a template is reachable from
+    private final Set<Object> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+    // path -> resolved value of the template found there
+    private final Map<String, Object> resolved = new HashMap<>();
+    private final LinkedHashSet<String> resolving = new LinkedHashSet<>();
+
+    private Interpolator(Map<String, Object> root) {
+        this.root = root;
+    }
+
+    /**
+     * @return {@code tree} itself when it holds no template, otherwise a copy with every template resolved
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> resolve(Map<String, Object> tree) {
+        Interpolator interpolator = new Interpolator(tree);
+        interpolator.findDirty();
+        if (!interpolator.dirty.contains(tree)) return tree;
+        return (Map<String, Object>) interpolator.rewrite(tree, "");
+    }
+
+    /**
+     * Puts the templates of {@code templates} back into {@code plain}, the tree about to be saved, wherever the
+     * saved value is still the one the template resolved to. Values changed since the build are saved as they
+     * are, replacing their template.
+     *
+     * @param templates the merged tree before interpolation
+     */
+    static void restore(Map<String, Object> plain, Map<String, Object> templates) {
+        Map<String, Object> resolved = resolve(templates);
+        if (resolved == templates) return;
+        restore(plain, templates, resolved, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object restore(Object plain, Object template, Object resolved, Set<Object> visited) {
+        if (template instanceof String s && s.contains("${")) {
+            return sameValue(plain, resolved) ? template : plain;
+        }
+        if (plain instanceof Map<?, ?> map && template instanceof Map<?, ?> templateMap && resolved instanceof Map<?, ?> resolvedMap) {
+            if (!visited.add(plain)) return plain;
+            for (Map.Entry<Object, Object> e : ((Map<Object, Object>) map).entrySet()) {
+                Object key = e.getKey();
+                if (templateMap.containsKey(key)) e.setValue(restore(e.getValue(), templateMap.get(key), resolvedMap.get(key), visited));
+            }
+        } else if (plain instanceof List<?> list && template instanceof List<?> templateList && resolved instanceof List<?> resolvedList
+                && list.size() == templateList.size() && list.size() == resolvedList.size()) {
+            if (!visited.add(plain)) return plain;
+            List<Object> items = (List<Object>) list;
+            for (int i = 0; i < items.size(); i++) items.set(i, restore(items.get(i), templateList.get(i), resolvedList.get(i), visited));
+        }
+        return plain;
+    }
+
+    // a bound field may hold the resolved text as another type, "8080" in an int field
+    private static boolean sameValue(Object plain, Object resolved) {
+        if (Objects.equals(plain, resolved)) return true;
+        return plain != null && resolved != null && !(plain instanceof Map) && !(plain instanceof Collection)
+                && String.valueOf(plain).equals(String.valueOf(resolved));
+    }
+
+    // ── Discovery ───────────────────────────────────────────────────────
+
+    // Marks the containers holding a template, then everything that reaches them. Reachability is only known
+    // once the whole graph has been walked, a cycle may lead back to a container before its children are done
+    private void findDirty() {
+        Map<Object, List<Object>> holders = new IdentityHashMap<>();
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Object> marked = new ArrayDeque<>();
+        holders.put(root, new ArrayList<>());
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Object container = pending.pop();
+            Collection<?> children = (container instanceof Map<?, ?> map) ? map.values() : (List<?>) container;
+            for (Object child : children) {
+                if (child instanceof String s) {
+                    if (s.contains("${") && dirty.add(container)) marked.push(container);
+                } else if (child instanceof Map || child instanceof List) {
+                    List<Object> childHolders = holders.get(child);
+                    if (childHolders == null) {
+                        childHolders = new ArrayList<>(1);
+                        holders.put(child, childHolders);
+                        pending.push(child);
+                    }
+                    childHolders.add(container);
+                }
+            }
+        }
+        while (!marked.isEmpty()) {
+            for (Object holder : holders.get(marked.pop())) {
+                if (dirty.add(holder)) marked.push(holder);
+            }
+        }
+    }
+
+    // ── Rewrite ─────────────────────────────────────────────────────────
+
+    private Object rewrite(Object value, String path) {
+        if (value instanceof String s) return s.contains("${") ? resolvePath(path, s) : s;
+        if (!dirty.contains(value)) return value;
+
+        Object copy = copies.get(value);
+        if (copy != null) return copy;
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> out = new LinkedHashMap<>(Math.max(16, (int) (map.size() / 0.75f) + 1));
+            copies.put(value, out);
+            for (Map.Entry<?, ?> e : map.entrySet()) out.put(e.getKey(), rewrite(e.getValue(), child(path, e.getKey())));
+            return out;
+        }
+        List<?> list = (List<?>) value;
+        List<Object> out = new ArrayList<>(list.size());
+        copies.put(value, out);
+        for (int i = 0; i < list.size(); i++) out.add(rewrite(list.get(i), child(path, i)));
+        return out;
+    }
+
+    private static String child(String path, Object key) {
+        return path.isEmpty() ? String.valueOf(key) : path + "." + key;
+    }
+
+    // ── Resolution ──────────────────────────────────────────────────────
+
+    private Object resolvePath(String path, String template) {
+        if (resolved.containsKey(path)) return resolved.get(path);
+        if (!resolving.add(path)) {
+            List<String> chain = new ArrayList<>(resolving);
+            chain = chain.subList(chain.indexOf(path), chain.size());
+            throw new RuntimeException("[RozsConfig] Cyclic reference: " + String.join(" -> ", chain) + " -> " + path);
+        }
+        Object value = evaluate(path, compile(path, template));
+        resolving.remove(path);
+        resolved.put(path, value);
+        return value;
+    }
+
+    private Object evaluate(String path, List<Object> parts) {
+        // a value that is nothing but a reference keeps the type of what it refers to
+        if (parts.size() == 1 && parts.get(0) instanceof Reference reference) return lookup(path, reference);
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts) {
+            sb.append(part instanceof Reference reference ? lookup(path, reference) : part);
+        }
+        return sb.toString();
+    }
+
+    private Object lookup(String path, Reference reference) {
+        Object value;
+        if (reference.name.startsWith(ENV)) {
+            value = System.getenv(reference.name.substring(ENV.length()));
+        } else {
+            value = find(reference.name);
+            if (value instanceof String s && s.contains("${")) value = resolvePath(reference.name, s);
+        }
+        if (value == null) value = reference.fallback;
+        if (value == null) {
+            throw new RuntimeException("[RozsConfig] Unresolved reference '${" + reference.name + "}' at '" + path + "'");
+        }
+        if (value instanceof Map || value instanceof Collection) {
+            throw new RuntimeException("[RozsConfig] '${" + reference.name + "}' at '" + path + "' refers to a section, only values can be interpolated");
+        }
+        return value;
+    }
+
+    private Object find(String name) {
+        Object current = root;
+        for (String segment : name.split("\\.", -1)) {
+            if (current instanceof Map<?, ?> map) {
+                current = map.get(segment);
+            } else if (current instanceof List<?> list) {
+                int index;
+                try {
+                    index = Integer.parseInt(segment);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                current = (index >= 0 && index < list.size()) ? list.get(index) : null;
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    // ── Compilation ─────────────────────────────────────────────────────
+
+    private record Reference(String name, String fallback) {}
+
+    // literal strings and references, "$${" is a literal "${"
+    private static List<Object> compile(String path, String template) {
+        List<Object> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            if (template.startsWith("$${", i)) {
+                literal.append("${");
+                i += 3;
+            } else if (template.startsWith("${", i)) {
+                int end = template.indexOf('}', i + 2);
+                if (end < 0) throw new RuntimeException("[RozsConfig] Unclosed '${' in '" + template + "' at '" + path + "'");
+                if (literal.length() > 0) {
+                    parts.add(literal.toString());
+                    literal.setLength(0);
+                }
+                parts.add(reference(template.substring(i + 2, end)));
+                i = end + 1;
+            } else {
+                literal.append(template.charAt(i++));
+            }
+        }
+        if (literal.length() > 0) parts.add(literal.toString());
+        return parts;
+    }
+
+    private static Reference reference(String body) {
+        int fallback = body.indexOf(FALLBACK);
+        String name = (fallback < 0 ? body : body.substring(0, fallback)).trim();
+        return new Reference(name, fallback < 0 ? null : body.substring(fallback + FALLBACK.length()));
+    }
+}
@@ -0,0 +1,300 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.KeySymbols;
+import net.weesli.rozsconfig.format.YamlEngine;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.*;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Reads the elements of one top-level list straight from the YAML event stream, see
+ * {@link ConfigMapper#stream(String, Class)}.
+ * <p>
+ * Only the element being read is composed into nodes and constructed, everything before and after the list is
+ * skipped event by event. Anchored nodes met on the way are the exception, they are kept so that elements can
+ * still alias them. The engine's limits apply as they do to a full load: nesting depth, aliases to collections
+ * and, when disallowed, duplicate keys. The rest of the document is still read, without being kept, once the
+ * list ends, so a file a full load rejects fails the stream as well.
+ */
+final class ListStream implements Iterator<Object>, Closeable {
+
+    private final Reader reader;
+    private final Iterator<Event> events;
+    private final LoaderOptions options;
+    private final Resolver resolver = new Resolver();
+    private final ElementConstructor constructor;
+    private final Map<String, Node> anchors = new HashMap<>();
+    // keys of the root mapping, only tracked when duplicates are rejected
+    private final Set<String> rootKeys;
+    // first event of the next element, null once the list is exhausted
+    private Event next;
+    // elements of a list given as an alias, already composed when its anchor was skipped
+    private Iterator<Node> aliased;
+    // counted as SnakeYAML's composer counts them
+    private int depth;
+    private int collectionAliases;
+
+    private ListStream(Reader reader, Iterator<Event> events, LoaderOptions options) {
+        this.reader = reader;
+        this.events = events;
+        this.options = options;
+        this.constructor = new ElementConstructor(options);
+        this.rootKeys = options.isAllowDuplicateKeys() ? null : new HashSet<>();
+    }
+
+    /**
+     * @return a stream positioned on the first element of {@code key}, or null (with the reader closed) when the
+     * document has no such list or it is empty
+     */
+    static ListStream open(YamlEngine engine, Reader reader, String key) throws IOException {
+        // the parser only keeps the reader and the options, the Yaml instance goes back right away
+        Iterator<Event> events = engine.apply(yaml -> yaml.parse(reader)).iterator();
+        ListStream stream = new ListStream(reader, events, engine.loaderOptions());
+        try {
+            if (stream.locate(key)) return stream;
+        } catch (RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+        stream.close();
+        return null;
+    }
+
+    private boolean locate(String key) {
+        Event event = nextEvent();
+        while (event.is(Event.ID.StreamStart) || event.is(Event.ID.DocumentStart)) event = nextEvent();
+        if (!event.is(Event.ID.MappingStart)) return false;
+        enter();
+
+        while (true) {
+            Event keyEvent = nextEvent();
+            if (keyEvent.is(Event.ID.MappingEnd)) {
+                leave();
+                endDocument();
+                return false;
+            }
+            checkKey(rootKeys, keyEvent);
+            boolean match = keyEvent instanceof ScalarEvent scalar && scalar.getValue().equals(key);
+            if (!match) {
+                skip(keyEvent);
+                skip(nextEvent());
+                continue;
+            }
+            Event value = nextEvent();
+            if (value instanceof AliasEvent alias) {
+                Node node = compose(alias);
+                if (node instanceof SequenceNode sequence) {
+                    aliased = sequence.getValue().iterator();
+                    if (aliased.hasNext()) return true;
+                    finish();
+                    return false;
+                }
+                if (node instanceof ScalarNode scalar && scalar.getTag().equals(Tag.NULL)) {
+                    finish();
+                    return false;
+                }
+                throw new RuntimeException("[RozsConfig] '" + key + "' is not a list");
+            }
+            if (value.is(Event.ID.SequenceStart)) {
+                enter();
+                next = nextEvent();
+                if (!next.is(Event.ID.SequenceEnd)) return true;
+                next = null;
+                leave();
+                finish();
+                return false;
+            }
+            if (value instanceof ScalarEvent scalar && resolve(scalar).equals(Tag.NULL)) {
+                finish();
+                return false;
+            }
+            throw new RuntimeException("[RozsConfig] '" + key + "' is not a list");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null || (aliased != null && aliased.hasNext());
+    }
+
+    @Override
+    public Object next() {
+        Node node;
+        if (aliased != null) {
+            if (!aliased.hasNext()) throw new NoSuchElementException();
+            node = aliased.next();
+            if (!aliased.hasNext()) finish();
+        } else {
+            if (next == null) throw new NoSuchElementException();
+            node = compose(next);
+            Event following = nextEvent();
+            if (following.is(Event.ID.SequenceEnd)) {
+                next = null;
+                leave();
+                finish();
+            } else {
+                next = following;
+            }
+        }
+        return constructor.construct(node);
+    }
+
+    @Override
+    public void close() throws IOException {
+        next = null;
+        aliased = null;
+        reader.close();
+    }
+
+    private Event nextEvent() {
+        if (!events.hasNext()) throw new RuntimeException("[RozsConfig] Unexpected end of document");
+        return events.next();
+    }
+
+    // skips the root mapping after the list and checks nothing else follows it
+    private void finish() {
+        for (Event keyEvent = nextEvent(); !keyEvent.is(Event.ID.MappingEnd); keyEvent = nextEvent()) {
+            checkKey(rootKeys, keyEvent);
+            skip(keyEvent);
+            skip(nextEvent());
+        }
+        leave();
+        endDocument();
+    }
+
+    private void endDocument() {
+        Event event = nextEvent();
+        if (event.is(Event.ID.DocumentEnd)) event = nextEvent();
+        if (!event.is(Event.ID.StreamEnd)) {
+            throw new YAMLException("expected a single document in the stream but found another document");
+        }
+    }
+
+    // ── Limits ──────────────────────────────────────────────────────────
+
+    private void enter() {
+        if (++depth > options.getNestingDepthLimit()) {
+            throw new YAMLException("Nesting Depth exceeded max " + options.getNestingDepthLimit());
+        }
+    }
+
+    private void leave() {
+        depth--;
+    }
+
+    private Node alias(AliasEvent alias) {
+        Node node = anchors.get(alias.getAnchor());
+        if (node == null) throw new RuntimeException("[RozsConfig] Undefined alias '*" + alias.getAnchor() + "'");
+        if (node.getNodeId() != NodeId.scalar && ++collectionAliases > options.getMaxAliasesForCollections()) {
+            throw new YAMLException("Number of aliases for non-scalar nodes exceeds the specified max="
+                    + options.getMaxAliasesForCollections());
+        }
+        return node;
+    }
+
+    // plain scalar keys only, which is every key a config file uses
+    private static void checkKey(Set<String> keys, Event keyEvent) {
+        if (keys != null && keyEvent instanceof ScalarEvent scalar && !keys.add(scalar.getValue())) {
+            throw new YAMLException("found duplicate key " + scalar.getValue());
+        }
+    }
+
+    // ── Events -> nodes ─────────────────────────────────────────────────
+
+    private void skip(Event event) {
+        if (event instanceof AliasEvent alias) {
+            alias(alias);
+            return;
+        }
+        if (event instanceof NodeEvent node && node.getAnchor() != null) {
+            compose(event);
+            return;
+        }
+        enter();
+        if (event.is(Event.ID.SequenceStart)) {
+            for (Event child = nextEvent(); !child.is(Event.ID.SequenceEnd); child = nextEvent()) skip(child);
+        } else if (event.is(Event.ID.MappingStart)) {
+            Set<String> keys = options.isAllowDuplicateKeys() ? null : new HashSet<>();
+            for (Event child = nextEvent(); !child.is(Event.ID.MappingEnd); child = nextEvent()) {
+                checkKey(keys, child);
+                skip(child);
+                skip(nextEvent());
+            }
+        }
+        leave();
+    }
+
+    private Node compose(Event event) {
+        if (event instanceof AliasEvent alias) return alias(alias);
+        String anchor = ((NodeEvent) event).getAnchor();
+        Node node;
+        enter();
+        if (event instanceof ScalarEvent scalar) {
+            node = new ScalarNode(resolve(scalar), scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle());
+            if (anchor != null) anchors.put(anchor, node);
+        } else if (event instanceof SequenceStartEvent start) {
+            List<Node> items = new ArrayList<>();
+            node = new SequenceNode(tag(start, Tag.SEQ), items, start.getFlowStyle());
+            if (anchor != null) anchors.put(anchor, node);
+            for (Event child = nextEvent(); !child.is(Event.ID.SequenceEnd); child = nextEvent()) {
+                items.add(compose(child));
+            }
+        } else if (event instanceof MappingStartEvent start) {
+            List<NodeTuple> tuples = new ArrayList<>();
+            node = new MappingNode(tag(start, Tag.MAP), tuples, start.getFlowStyle());
+            if (anchor != null) anchors.put(anchor, node);
+            for (Event child = nextEvent(); !child.is(Event.ID.MappingEnd); child = nextEvent()) {
+                Node keyNode = compose(child);
+                tuples.add(new NodeTuple(keyNode, compose(nextEvent())));
+            }
+        } else {
+            throw new RuntimeException("[RozsConfig] Unexpected " + event.getEventId() + " event");
+        }
+        leave();
+        return node;
+    }
+
+    private Tag resolve(ScalarEvent scalar) {
+        String tag = scalar.getTag();
+        if (tag != null && !tag.equals("!")) return new Tag(tag);
+        return resolver.resolve(NodeId.scalar, scalar.getValue(), scalar.getImplicit().canOmitTagInPlainScalar());
+    }
+
+    private static Tag tag(CollectionStartEvent start, Tag implicit) {
+        String tag = start.getTag();
+        return (tag == null || tag.equals("!")) ? implicit : new Tag(tag);
+    }
+
+    /**
+     * Constructs one element the way a full load would, each element as a document of its own.
+     */
+    private static final class ElementConstructor extends SafeConstructor {
+
+        // shared by every element of the stream, they repeat the same keys
+        private final KeySymbols symbols = new KeySymbols();
+
+        ElementConstructor(LoaderOptions options) {
+            super(options);
+            // copied from the options by Yaml's constructor, which this one never passes through
+            setAllowDuplicateKeys(options.isAllowDuplicateKeys());
+            setWrappedToRootException(options.isWrappedToRootException());
+        }
+
+        Object construct(Node node) {
+            return constructDocument(node);
+        }
+
+        @Override
+        protected void constructMapping2ndStep(MappingNode node, Map<Object, Object> mapping) {
+            super.constructMapping2ndStep(node, symbols.interning(mapping));
+        }
+    }
+}
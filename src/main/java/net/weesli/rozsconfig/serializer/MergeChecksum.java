@@ -0,0 +1,101 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.annotations.IgnoreKeys;
+import net.weesli.rozsconfig.annotations.NullableField;
+import net.weesli.rozsconfig.format.ConfigFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Sidecar file remembering the inputs of the last default merge, see {@link ConfigMapper#mergeChecksum(boolean)}.
+ * <p>
+ * It holds two SHA-256 digests: one over the default resource together with everything else that decides the
+ * merge result (format and the shape of the config class), and one over the file as it was left on disk. When
+ * both still match on the next load the merge is known to add nothing and can be skipped.
+ */
+final class MergeChecksum {
+
+    private static final String VERSION = "rozsconfig-merge 1";
+
+    // structural signature of a config class: keys, declared types and the annotations the merge looks at
+    private static final ClassValue<String> SIGNATURES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            StringBuilder sb = new StringBuilder();
+            appendSignature(type, sb, new HashSet<>());
+            return sb.toString();
+        }
+    };
+
+    private MergeChecksum() {}
+
+    static boolean matches(File file, byte[] resource, byte[] disk, Class<?> type, ConfigFormat format) {
+        File sidecar = sidecarOf(file);
+        if (!sidecar.isFile()) return false;
+        try {
+            return Files.readString(sidecar.toPath(), StandardCharsets.UTF_8).equals(content(resource, disk, type, format));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Best effort: a sidecar that can not be written only means the next load merges again.
+     */
+    static void record(File file, byte[] resource, byte[] disk, Class<?> type, ConfigFormat format) {
+        try {
+            // never half written, a torn sidecar would only fail to match but a stale one could
+            AtomicFiles.write(sidecarOf(file).toPath(), content(resource, disk, type, format).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+        }
+    }
+
+    static File sidecarOf(File file) {
+        File absolute = file.getAbsoluteFile();
+        return new File(absolute.getParentFile(), "." + absolute.getName() + ".sum");
+    }
+
+    private static String content(byte[] resource, byte[] disk, Class<?> type, ConfigFormat format) {
+        MessageDigest digest = sha256();
+        digest.update(format.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(SIGNATURES.get(type).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        String defaults = HexFormat.of().formatHex(digest.digest(resource));
+        String current = HexFormat.of().formatHex(sha256().digest(disk));
+        return VERSION + "\ndefaults " + defaults + "\nfile " + current + "\n";
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+
+    private static void appendSignature(Class<?> type, StringBuilder sb, Set<Class<?>> visited) {
+        if (type == null || TypeUtils.isSimpleType(type) || type.getName().startsWith("java.")) return;
+        if (!visited.add(type)) return;
+        sb.append(type.getName());
+        if (type.isAnnotationPresent(IgnoreKeys.class)) sb.append(" @IgnoreKeys");
+        sb.append('{');
+        List<Class<?>> nested = new ArrayList<>();
+        for (Field field : TypeUtils.getAllFields(type)) {
+            sb.append(TypeUtils.resolveKey(field)).append(':').append(field.getGenericType().getTypeName());
+            if (field.isAnnotationPresent(NullableField.class)) sb.append(" @NullableField");
+            if (field.isAnnotationPresent(IgnoreKeys.class)) sb.append(" @IgnoreKeys");
+            sb.append(';');
+            TypeUtils.collectClasses(field.getGenericType(), nested);
+        }
+        sb.append('}');
+        for (Class<?> c : nested) appendSignature(c, sb, visited);
+    }
+}
@@ -0,0 +1,24 @@
+package net.weesli.rozsconfig.serializer;
+
+/**
+ * What a {@link ConfigMapper} keeps of the loaded file between {@link ConfigMapper#load(java.io.InputStream)}
+ * and later {@link ConfigMapper#build()} calls, where it is merged back in for keys removed from disk.
+ *
+ * @author Weesli
+ **/
+public enum RetentionMode {
+    /**
+     * Keep the parsed tree as it is (default).
+     */
+    FULL,
+    /**
+     * Keep an immutable compact copy: repeated strings, numbers and identical subtrees are shared and maps are
+     * stored as flat arrays.
+     */
+    COMPACT,
+    /**
+     * Keep nothing. The file already contains every default after {@code load}, so builds only lose the
+     * ability to restore keys a user deletes while the server is running.
+     */
+    NONE
+}
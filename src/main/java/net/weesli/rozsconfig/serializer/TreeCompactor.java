@@ -0,0 +1,120 @@
+package net.weesli.rozsconfig.serializer;
+
+import java.io.Serial;
+import java.util.*;
+
+/**
+ * Builds the {@link RetentionMode#COMPACT} form of a parsed tree and estimates how much heap a tree retains.
+ */
+final class TreeCompactor {
+
+    // canonical instance of every string, number and subtree seen so far
+    private final Map<Object, Object> canonical = new HashMap<>();
+    // parsed node -> compacted node, so aliased subtrees are only compacted once
+    private final Map<Object, Object> done = new IdentityHashMap<>();
+    private final Set<Object> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private TreeCompactor() {}
+
+    /**
+     * @return an immutable copy sharing every repeated value, or the tree itself if it contains a cycle
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> compact(Map<String, Object> tree) {
+        try {
+            return (Map<String, Object>) new TreeCompactor().compactValue(tree);
+        } catch (CyclicTreeException e) {
+            return tree;
+        }
+    }
+
+    private Object compactValue(Object value) {
+        if (value == null) return null;
+        if (value instanceof String s) return canonical(s);
+        if (value instanceof Number || value instanceof Boolean) return canonical(value);
+        if (!(value instanceof Map) && !(value instanceof Collection)) return value;
+
+        Object known = done.get(value);
+        if (known != null) return known;
+        if (!inProgress.add(value)) throw new CyclicTreeException();
+
+        Object compacted;
+        if (value instanceof Map<?, ?> map) {
+            Object[] keys = new Object[map.size()];
+            Object[] values = new Object[map.size()];
+            int i = 0;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                keys[i] = compactValue(e.getKey());
+                values[i++] = compactValue(e.getValue());
+            }
+            compacted = canonical(new CompactMap(keys, values));
+        } else {
+            Collection<?> col = (Collection<?>) value;
+            Object[] items = new Object[col.size()];
+            int i = 0;
+            for (Object v : col) items[i++] = compactValue(v);
+            compacted = canonical(Collections.unmodifiableList(Arrays.asList(items)));
+        }
+        inProgress.remove(value);
+        done.put(value, compacted);
+        return compacted;
+    }
+
+    private Object canonical(Object value) {
+        Object existing = canonical.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Rough shallow-size estimate (compressed oops, 8 byte alignment) of everything reachable from the tree.
+     * Shared instances are only counted once, so the effect of {@link RetentionMode#COMPACT} shows up.
+     */
+    static long estimateRetainedBytes(Object tree) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> stack = new ArrayDeque<>();
+        if (tree != null) stack.push(tree);
+        long total = 0;
+        while (!stack.isEmpty()) {
+            Object value = stack.pop();
+            if (!seen.add(value)) continue;
+            if (value instanceof String s) {
+                total += 24 + align(16 + s.length());
+            } else if (value instanceof CompactMap map) {
+                total += map.footprint();
+                pushEntries(map, stack);
+            } else if (value instanceof Map<?, ?> map) {
+                int capacity = Integer.highestOneBit(Math.max(16, (int) (map.size() / 0.75f) * 2 - 1));
+                total += 56 + align(16 + 4L * capacity) + 40L * map.size();
+                pushEntries(map, stack);
+            } else if (value instanceof Collection<?> col) {
+                total += 24 + align(16 + 4L * col.size());
+                for (Object v : col) if (v != null) stack.push(v);
+            } else if (value instanceof Long || value instanceof Double) {
+                total += 24;
+            } else {
+                total += 16;
+            }
+        }
+        return total;
+    }
+
+    private static void pushEntries(Map<?, ?> map, Deque<Object> stack) {
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            if (e.getKey() != null) stack.push(e.getKey());
+            if (e.getValue() != null) stack.push(e.getValue());
+        }
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static final class CyclicTreeException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        CyclicTreeException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package net.weesli.rozsconfig.serializer;
 
 import net.weesli.rozsconfig.annotations.ConfigKey;
+import net.weesli.rozsconfig.format.KeySymbols;
 import net.weesli.rozsconfig.serializer.component.ObjectSerializer;
 
 import java.lang.reflect.*;
@@ -27,7 +28,15 @@ final class TypeUtils {
     }
 
     static boolean isSimpleType(Class<?> c) {
-        return c.isPrimitive() || isWrapper(c) || c == String.class || c.isEnum();
+        return c.isPrimitive() || isWrapper(c) || c == String.class || c.isEnum() || isPrimitiveArray(c);
+    }
+
+    /**
+     * Numeric arrays are bound as a single value: a YAML sequence is copied straight into the array, so the
+     * elements are never kept in a boxed {@link List}.
+     */
+    static boolean isPrimitiveArray(Class<?> c) {
+        return c == int[].class || c == long[].class || c == double[].class || c == float[].class;
     }
 
     static boolean isCollectionOrMap(Class<?> c) {
@@ -41,11 +50,58 @@ final class TypeUtils {
         return f.getName();
     }
 
+    // config classes whose keys are registered with KeySymbols, walked once per class
+    private static final ClassValue<Boolean> SCHEMA_KEYS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            registerKeys(type, new HashSet<>());
+            return Boolean.TRUE;
+        }
+    };
+
+    /**
+     * Registers the keys of {@code type} and of every config class reachable from its fields as
+     * {@link KeySymbols} schema keys, so parsed keys become the instances field lookups use.
+     */
+    static void registerKeys(Class<?> type) {
+        SCHEMA_KEYS.get(type);
+    }
+
+    private static void registerKeys(Class<?> type, Set<Class<?>> visited) {
+        if (type == null || isSimpleType(type) || type.getName().startsWith("java.")) return;
+        if (!visited.add(type)) return;
+        List<Class<?>> nested = new ArrayList<>();
+        for (Field field : getAllFields(type)) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            KeySymbols.register(resolveKey(field));
+            collectClasses(field.getGenericType(), nested);
+        }
+        for (Class<?> c : nested) registerKeys(c, visited);
+    }
+
+    /**
+     * Adds the classes named by {@code type}: the class itself, or the raw type and every type argument.
+     */
+    static void collectClasses(Type type, List<Class<?>> out) {
+        if (type instanceof Class<?> c) {
+            out.add(c.isArray() ? c.getComponentType() : c);
+        } else if (type instanceof ParameterizedType p) {
+            collectClasses(p.getRawType(), out);
+            for (Type arg : p.getActualTypeArguments()) collectClasses(arg, out);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     static Object coerce(Object v, Class<?> target) {
         if (v == null) return null;
         if (target.isInstance(v)) return v;
 
+        // Primitive array conversion
+        if (isPrimitiveArray(target)) {
+            if (v instanceof Collection<?> col) return toPrimitiveArray(col, target.getComponentType());
+            return v;
+        }
+
         // Enum conversion
         if (target.isEnum()) {
             return Enum.valueOf((Class<? extends Enum>) target, v.toString());
@@ -92,8 +148,77 @@ final class TypeUtils {
         return v;
     }
 
-    @SuppressWarnings("unchecked")
+    static Object toPrimitiveArray(Collection<?> values, Class<?> component) {
+        if (component != int.class && component != long.class && component != double.class && component != float.class) {
+            throw new IllegalArgumentException("Unsupported array component type: " + component.getName());
+        }
+        return fillPrimitiveArray(values, Array.newInstance(component, values.size()));
+    }
+
+    /**
+     * Copies the values into an existing numeric array of the same length.
+     */
+    static Object fillPrimitiveArray(Collection<?> values, Object array) {
+        int i = 0;
+        if (array instanceof int[] out) {
+            for (Object o : values) out[i++] = (o instanceof Number n) ? n.intValue() : Integer.parseInt(numberString(o));
+        } else if (array instanceof long[] out) {
+            for (Object o : values) out[i++] = (o instanceof Number n) ? n.longValue() : Long.parseLong(numberString(o));
+        } else if (array instanceof double[] out) {
+            for (Object o : values) out[i++] = (o instanceof Number n) ? n.doubleValue() : Double.parseDouble(numberString(o));
+        } else if (array instanceof float[] out) {
+            for (Object o : values) out[i++] = (o instanceof Number n) ? n.floatValue() : Float.parseFloat(numberString(o));
+        }
+        return array;
+    }
+
+    private static String numberString(Object o) {
+        return o == null ? "0" : o.toString().trim();
+    }
+
+    /**
+     * Read-only list view over a numeric array, used when writing so the array is not copied into a new list.
+     */
+    static List<Object> primitiveArrayAsList(Object array) {
+        return new AbstractList<>() {
+            private final int size = Array.getLength(array);
+
+            @Override
+            public Object get(int index) {
+                return Array.get(array, index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
     static Object newDefaultContainer(Class<?> c) {
+        return newDefaultContainer(c, null);
+    }
+
+    /**
+     * Creates an empty container for the given field type. The generic type is only needed for {@link EnumMap}
+     * and {@link EnumSet}, which must know their enum class up front.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object newDefaultContainer(Class<?> c, Type genericType) {
+        if (EnumMap.class.isAssignableFrom(c)) {
+            Class<?> keyType = getRawClass(getMapKeyGenericType(genericType));
+            if (keyType == null || !keyType.isEnum()) {
+                throw new IllegalArgumentException("EnumMap field needs a concrete enum key type: " + genericType);
+            }
+            return new EnumMap(keyType);
+        }
+        if (EnumSet.class.isAssignableFrom(c)) {
+            Class<?> elemType = getRawClass(getCollectionElementGenericType(genericType));
+            if (elemType == null || !elemType.isEnum()) {
+                throw new IllegalArgumentException("EnumSet field needs a concrete enum element type: " + genericType);
+            }
+            return EnumSet.noneOf((Class) elemType);
+        }
         if (Map.class.isAssignableFrom(c)) {
             if (SortedMap.class.isAssignableFrom(c)) return new TreeMap<>();
             if (java.util.concurrent.ConcurrentMap.class.isAssignableFrom(c)) return new java.util.concurrent.ConcurrentHashMap<>();
@@ -152,6 +277,14 @@ final class TypeUtils {
         return null;
     }
 
+    static Type getMapKeyGenericType(Type containerType) {
+        if (containerType instanceof ParameterizedType pt) {
+            Type[] args = pt.getActualTypeArguments();
+            if (args.length == 2) return args[0];
+        }
+        return null;
+    }
+
     static Type getCollectionElementGenericType(Type containerType) {
         if (containerType instanceof ParameterizedType pt) {
             Type[] args = pt.getActualTypeArguments();
@@ -0,0 +1,119 @@
+package net.weesli.rozsconfig.serializer.component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view over a parsed mapping, handed to {@link StreamingSerializer#read(FieldReader)}. Unlike
+ * {@link ObjectNode} it does not copy the mapping, accessors coerce values the same way.
+ *
+ * @author Weesli
+ **/
+public final class FieldReader {
+
+    private final Map<String, Object> values;
+
+    public FieldReader(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    public boolean has(String key) {
+        return values.get(key) != null;
+    }
+
+    public Set<String> keys() {
+        return values.keySet();
+    }
+
+    public Object getRaw(String key) {
+        return values.get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Class<T> clazz) {
+        Object raw = values.get(key);
+        if (raw == null) return null;
+        if (clazz.isInstance(raw)) return clazz.cast(raw);
+        return (T) ObjectNode.safeCast(raw, clazz);
+    }
+
+    public String getString(String key) {
+        Object raw = values.get(key);
+        return raw == null ? null : String.valueOf(raw);
+    }
+
+    public String getString(String key, String def) {
+        Object raw = values.get(key);
+        return raw == null ? def : String.valueOf(raw);
+    }
+
+    public int getInt(String key) {
+        return getInt(key, 0);
+    }
+
+    public int getInt(String key, int def) {
+        Object raw = values.get(key);
+        if (raw == null) return def;
+        if (raw instanceof Number n) return n.intValue();
+        return Integer.parseInt(String.valueOf(raw));
+    }
+
+    public long getLong(String key) {
+        return getLong(key, 0L);
+    }
+
+    public long getLong(String key, long def) {
+        Object raw = values.get(key);
+        if (raw == null) return def;
+        if (raw instanceof Number n) return n.longValue();
+        return Long.parseLong(String.valueOf(raw));
+    }
+
+    public double getDouble(String key) {
+        return getDouble(key, 0.0);
+    }
+
+    public double getDouble(String key, double def) {
+        Object raw = values.get(key);
+        if (raw == null) return def;
+        if (raw instanceof Number n) return n.doubleValue();
+        return Double.parseDouble(String.valueOf(raw));
+    }
+
+    public float getFloat(String key) {
+        return getFloat(key, 0.0f);
+    }
+
+    public float getFloat(String key, float def) {
+        Object raw = values.get(key);
+        if (raw == null) return def;
+        if (raw instanceof Number n) return n.floatValue();
+        return Float.parseFloat(String.valueOf(raw));
+    }
+
+    public boolean getBoolean(String key) {
+        return getBoolean(key, false);
+    }
+
+    public boolean getBoolean(String key, boolean def) {
+        Object raw = values.get(key);
+        if (raw == null) return def;
+        if (raw instanceof Boolean b) return b;
+        return Boolean.parseBoolean(String.valueOf(raw));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Collection<T> getList(String key, Class<T> clazz) {
+        return (Collection<T>) values.get(key);
+    }
+
+    /**
+     * @return a reader over a nested mapping, or null if the key is absent or not a mapping
+     */
+    @SuppressWarnings("unchecked")
+    public FieldReader getSection(String key) {
+        Object raw = values.get(key);
+        return (raw instanceof Map) ? new FieldReader((Map<String, Object>) raw) : null;
+    }
+}
@@ -0,0 +1,33 @@
+package net.weesli.rozsconfig.serializer.component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes fields straight into the mapping that is dumped, handed to
+ * {@link StreamingSerializer#write(Object, FieldWriter)}. Keys keep the order they are written in.
+ *
+ * @author Weesli
+ **/
+public final class FieldWriter {
+
+    private final Map<String, Object> values;
+
+    public FieldWriter(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    public FieldWriter set(String key, Object value) {
+        values.put(key, value);
+        return this;
+    }
+
+    /**
+     * @return a writer for a nested mapping stored under the key
+     */
+    public FieldWriter section(String key) {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        values.put(key, nested);
+        return new FieldWriter(nested);
+    }
+}
@@ -80,8 +80,13 @@ public class ObjectNode {
         return variableMap;
     }
 
+    // live backing map, streaming serializers read and write through it without copying
+    Map<String, Object> asMap() {
+        return variableMap;
+    }
+
     // ── Safe casting helper ──────────────────────────────────────────────
-    private static Object safeCast(Object raw, Class<?> target) {
+    static Object safeCast(Object raw, Class<?> target) {
         if (raw == null) return null;
         if (target.isInstance(raw)) return raw;
 
@@ -0,0 +1,29 @@
+package net.weesli.rozsconfig.serializer.component;
+
+/**
+ * An {@link ObjectSerializer} that reads and writes its fields one by one instead of going through an
+ * {@link ObjectNode}. The {@link FieldReader} reads straight from the parsed mapping and the {@link FieldWriter}
+ * writes straight into the mapping that gets dumped, so no intermediate map is copied per value. Worth it for
+ * small types that appear in large lists, like locations or item stacks.
+ * <p>
+ * The config reader and writer use {@link #read(FieldReader)} and {@link #write(Object, FieldWriter)} whenever a
+ * serializer implements this interface, the {@link ObjectNode} methods are only kept for existing callers.
+ *
+ * @author Weesli
+ **/
+public interface StreamingSerializer<T> extends ObjectSerializer<T> {
+
+    T read(FieldReader reader);
+
+    void write(T obj, FieldWriter writer);
+
+    @Override
+    default T deserialize(ObjectNode node) {
+        return read(new FieldReader(node.asMap()));
+    }
+
+    @Override
+    default void serialize(T obj, ObjectNode node) {
+        write(obj, new FieldWriter(node.asMap()));
+    }
+}
@@ -0,0 +1,109 @@
+package net.weesli.rozsconfig.format;
+
+import net.weesli.rozsconfig.serializer.ConfigMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round trips of the JSON and binary codecs, on raw trees and through a mapper.
+ */
+class ConfigFormatTest {
+
+    @TempDir
+    Path dir;
+
+    public static class Values {
+        public float ratio = 0.1f;
+        public double price = 0.1;
+        public int amount = -7;
+        public long seed = Long.MAX_VALUE;
+        public boolean enabled = true;
+        public String name = "naïve ✓";
+        public List<String> lore = List.of("a", "b", "a");
+        public Map<String, Integer> weights = Map.of("x", 1);
+    }
+
+    @Test
+    void binaryRoundTripKeepsTypes() throws IOException {
+        Map<String, Object> tree = tree();
+        assertEquals(tree, ConfigFormat.binary().read(ConfigFormat.binary().write(tree)));
+    }
+
+    @Test
+    void jsonRoundTripKeepsValues() throws IOException {
+        Map<String, Object> tree = tree();
+        Map<String, Object> read = ConfigFormat.json().read(ConfigFormat.json().write(tree));
+        // JSON has a single number type, decimals come back as doubles with the same text
+        tree.put("ratio", 0.1);
+        assertEquals(tree, read);
+    }
+
+    @Test
+    void jsonRejectsNaN() {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("ratio", Float.NaN);
+        assertThrows(IOException.class, () -> ConfigFormat.json().write(tree));
+    }
+
+    @Test
+    void binaryRejectsCorruptedData() throws IOException {
+        byte[] data = ConfigFormat.binary().write(tree());
+        assertThrows(IOException.class, () -> ConfigFormat.binary().read(Arrays.copyOf(data, data.length / 2)));
+    }
+
+    @Test
+    void mapperRoundTripJson() {
+        assertRoundTrip(ConfigFormat.json(), "values.json");
+    }
+
+    @Test
+    void mapperRoundTripBinary() {
+        assertRoundTrip(ConfigFormat.binary(), "values.rzc");
+    }
+
+    private void assertRoundTrip(ConfigFormat format, String name) {
+        ConfigMapper mapper = ConfigMapper.of(Values.class).format(format).file(dir.resolve(name).toFile()).load();
+        Values values = new Values();
+        values.ratio = 0.3f;
+        values.name = "changed";
+        mapper.save(values);
+        Values read = mapper.build();
+        assertEquals(0.3f, read.ratio);
+        assertEquals(0.1, read.price);
+        assertEquals(-7, read.amount);
+        assertEquals(Long.MAX_VALUE, read.seed);
+        assertEquals("changed", read.name);
+        assertEquals(List.of("a", "b", "a"), read.lore);
+        assertEquals(Map.of("x", 1), read.weights);
+    }
+
+    private static Map<String, Object> tree() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("name", "naïve ✓");
+        nested.put("missing", null);
+        List<Object> list = new ArrayList<>(List.of(1, "name", true, 2.5));
+        list.add(nested);
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("ratio", 0.1f);
+        tree.put("price", 0.1);
+        tree.put("amount", -7);
+        tree.put("seed", Long.MAX_VALUE);
+        tree.put("big", new BigInteger("123456789012345678901234567890"));
+        tree.put("enabled", false);
+        tree.put("items", list);
+        tree.put("section", nested);
+        return tree;
+    }
+}
@@ -0,0 +1,86 @@
+package net.weesli.rozsconfig.format;
+
+import net.weesli.rozsconfig.serializer.ConfigMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Keys repeat as one instance within a parse, only the keys of config classes are shared between parses.
+ */
+class KeySymbolsTest {
+
+    public static class Schema {
+        public String quartermaster = "none";
+    }
+
+    @Test
+    void repeatedKeysAreOneInstanceInYaml() throws IOException {
+        assertRepeatedKeysShared(ConfigFormat.yaml().read(bytes("a:\n  wanderer: 1\nb:\n  wanderer: 2\n")));
+    }
+
+    @Test
+    void repeatedKeysAreOneInstanceInJson() throws IOException {
+        assertRepeatedKeysShared(ConfigFormat.json().read(bytes("{\"a\": {\"wanderer\": 1}, \"b\": {\"wanderer\": 2}}")));
+    }
+
+    @Test
+    void repeatedKeysAreOneInstanceInBinary() throws IOException {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("a", Map.of("wanderer", 1));
+        tree.put("b", Map.of("wanderer", 2));
+        assertRepeatedKeysShared(ConfigFormat.binary().read(ConfigFormat.binary().write(tree)));
+    }
+
+    @Test
+    void schemaKeysAreTheFieldNames() throws IOException {
+        ConfigMapper.of(Schema.class);
+        for (ConfigFormat format : List.of(ConfigFormat.yaml(), ConfigFormat.json(), ConfigFormat.binary())) {
+            Map<String, Object> tree = new LinkedHashMap<>();
+            tree.put(new String("quartermaster".toCharArray()), "x");
+            Map<String, Object> read = format.read(format.write(tree));
+            // field names are interned constants, the same instance as the literal
+            assertSame("quartermaster", read.keySet().iterator().next());
+        }
+    }
+
+    @Test
+    void dynamicKeysStayWithTheirParse() throws IOException {
+        int registered = KeySymbols.schemaSize();
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            document.append(UUID.randomUUID()).append(": ").append(i).append('\n');
+        }
+        assertEquals(1_000, ConfigFormat.yaml().read(bytes(document.toString())).size());
+        assertEquals(registered, KeySymbols.schemaSize());
+
+        String first = ConfigFormat.yaml().read(bytes("wanderer: 1\n")).keySet().iterator().next();
+        String second = ConfigFormat.yaml().read(bytes("wanderer: 1\n")).keySet().iterator().next();
+        assertEquals(first, second);
+        assertNotSame(first, second);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertRepeatedKeysShared(Map<String, Object> tree) {
+        List<String> keys = new ArrayList<>();
+        for (Object section : tree.values()) {
+            keys.addAll(((Map<String, Object>) section).keySet());
+        }
+        assertEquals(List.of("wanderer", "wanderer"), keys);
+        assertSame(keys.get(0), keys.get(1));
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package net.weesli.rozsconfig.format;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Lent {@link Yaml} instances are reused by whichever thread asks next, never by two callers at once.
+ */
+class YamlEngineTest {
+
+    @Test
+    void releasedInstanceIsReusedOnAnotherThread() {
+        YamlEngine engine = YamlEngine.builder().build();
+        Yaml first = engine.acquire();
+        engine.release(first);
+        Yaml other = CompletableFuture.supplyAsync(engine::acquire, runnable -> new Thread(runnable).start()).join();
+        assertSame(first, other);
+    }
+
+    @Test
+    void lentInstanceIsNotSharedBeforeRelease() {
+        YamlEngine engine = YamlEngine.builder().build();
+        Yaml first = engine.acquire();
+        Yaml second = engine.acquire();
+        assertNotSame(first, second);
+        engine.release(first);
+        engine.release(second);
+    }
+
+    @Test
+    void applyGivesTheInstanceBack() {
+        YamlEngine engine = YamlEngine.builder().build();
+        Map<String, Object> tree = engine.apply(yaml -> yaml.load("a: 1"));
+        assertEquals(Map.of("a", 1), tree);
+        Yaml used = engine.apply(yaml -> yaml);
+        assertSame(used, engine.apply(yaml -> yaml));
+    }
+}
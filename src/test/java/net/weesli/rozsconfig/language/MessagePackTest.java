@@ -0,0 +1,78 @@
+package net.weesli.rozsconfig.language;
+
+import net.weesli.rozsconfig.serializer.ConfigMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessagePackTest {
+
+    @TempDir
+    Path dir;
+
+    public static class Messages {
+        public String title = "Hello";
+        public Map<String, String> errors = Map.of("not-found", "Not found");
+        public List<String> motd = List.of("one", "two");
+    }
+
+    public static class Server {
+        public String name = "lobby";
+        public Map<String, Object> limits = Map.of("players", 10);
+    }
+
+    @Test
+    void flattensSectionsAndLists() throws Exception {
+        LanguageConfig<Messages> config = new LanguageConfig<>(List.of("en"), dir, "messages", Messages.class);
+        assertEquals("Hello", config.message("en", "title"));
+        assertEquals("Not found", config.message("en", "errors.not-found"));
+        assertEquals("one\ntwo", config.message("en", "motd"));
+        assertNull(config.message("en", "missing"));
+    }
+
+    @Test
+    void sameSizeEditWithinMtimeIsNotStale() throws Exception {
+        LanguageConfig<Messages> config = new LanguageConfig<>(List.of("en"), dir, "messages", Messages.class);
+        assertEquals("Hello", config.message("en", "title"));
+
+        Path file = dir.resolve("en/messages.yml");
+        FileTime modified = Files.getLastModifiedTime(file);
+        String content = Files.readString(file);
+        Files.writeString(file, content.replace("title: Hello", "title: Howdy"));
+        Files.setLastModifiedTime(file, modified);
+
+        config.reload("en");
+        assertEquals("Howdy", config.message("en", "title"));
+        try (Stream<Path> files = Files.list(dir.resolve("en"))) {
+            assertEquals(1, files.filter(p -> p.toString().endsWith(".pack")).count());
+        }
+    }
+
+    @Test
+    void digestCoversFragments() throws Exception {
+        Path file = dir.resolve("server.yml");
+        ConfigMapper mapper = ConfigMapper.of(Server.class).fragments(true).file(file.toFile()).load();
+        Path fragment = dir.resolve("server.d/limits.yml");
+        Files.createDirectories(fragment.getParent());
+        Files.writeString(fragment, "players: 10\n");
+        byte[] before = mapper.sourceDigest();
+        assertTrue(Arrays.equals(before, mapper.sourceDigest()));
+
+        FileTime modified = Files.getLastModifiedTime(fragment);
+        Files.writeString(fragment, "players: 20\n");
+        Files.setLastModifiedTime(fragment, modified);
+        assertFalse(Arrays.equals(before, mapper.sourceDigest()));
+    }
+}
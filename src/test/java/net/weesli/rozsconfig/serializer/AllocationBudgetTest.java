@@ -0,0 +1,119 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.YamlEngine;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets for the hot paths, expressed in bytes per generated item so they do not depend on the
+ * fixture size. Budgets sit about 50% above the figures measured when they were set: a failure means a change
+ * made the path allocate noticeably more, lower the budget instead when a change makes it cheaper.
+ * <p>
+ * Tagged {@code budget}, run with {@code gradle budgetTest} rather than the default test task.
+ */
+@Tag("budget")
+class AllocationBudgetTest {
+
+    private static final int ITEMS = 5_000;
+    private static final int WARMUPS = 5;
+    private static final int RUNS = 5;
+
+    // whole pipeline, mostly SnakeYAML's parser and emitter, remeasure when its version changes
+    private static final long BUILD_BYTES_PER_ITEM = 130_000;
+    private static final long SAVE_BYTES_PER_ITEM = 97_000;
+    // the library's own share
+    private static final long READER_BYTES_PER_ITEM = 9_000;
+    private static final long WRITER_BYTES_PER_ITEM = 6_500;
+    private static final long MERGER_BYTES_PER_ITEM = 1_200;
+
+    @TempDir
+    static Path dir;
+
+    private static String document;
+    private static Map<String, Object> tree;
+
+    @BeforeAll
+    static void generate() {
+        document = SyntheticConfigs.yaml(ITEMS);
+        tree = YamlEngine.shared().apply(yaml -> yaml.load(document));
+    }
+
+    @Test
+    void build() throws Exception {
+        assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        ConfigMapper mapper = mapper("build.yml");
+        SyntheticConfigs.Catalog[] out = new SyntheticConfigs.Catalog[1];
+        long bytes = AllocationMeter.minAllocatedBytes(() -> out[0] = mapper.build(), WARMUPS, RUNS);
+        assertEquals(ITEMS, out[0].items.size());
+        assertBudget("ConfigMapper.build()", bytes, BUILD_BYTES_PER_ITEM);
+    }
+
+    @Test
+    void save() throws Exception {
+        assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        ConfigMapper mapper = mapper("save.yml");
+        SyntheticConfigs.Catalog catalog = SyntheticConfigs.catalog(ITEMS);
+        long bytes = AllocationMeter.minAllocatedBytes(() -> mapper.save(catalog), WARMUPS, RUNS);
+        assertBudget("ConfigMapper.save()", bytes, SAVE_BYTES_PER_ITEM);
+    }
+
+    @Test
+    void reader() throws Exception {
+        assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        long bytes = AllocationMeter.minAllocatedBytes(
+                () -> new ConfigReader(List.of()).buildPojoFromMap(SyntheticConfigs.Catalog.class, tree), WARMUPS, RUNS);
+        assertBudget("ConfigReader", bytes, READER_BYTES_PER_ITEM);
+    }
+
+    @Test
+    void writer() throws Exception {
+        assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        SyntheticConfigs.Catalog catalog = SyntheticConfigs.catalog(ITEMS);
+        long bytes = AllocationMeter.minAllocatedBytes(
+                () -> new ConfigWriter(null, List.of()).toPlainTree(catalog), WARMUPS, RUNS);
+        assertBudget("ConfigWriter", bytes, WRITER_BYTES_PER_ITEM);
+    }
+
+    @Test
+    void merger() throws Exception {
+        assumeTrue(AllocationMeter.isSupported(), "thread allocation counters unavailable");
+        // every key already exists, so the merge only walks the tree
+        @SuppressWarnings("unchecked")
+        Map<String, Object> current = (Map<String, Object>) DeepMerger.copyTree(tree);
+        Set<String> prefixes = Collections.emptySet();
+        long bytes = AllocationMeter.minAllocatedBytes(
+                () -> DeepMerger.deepMergeDefaultsIntoCurrent(tree, current, "", prefixes), WARMUPS, RUNS);
+        assertEquals(tree, current);
+        assertBudget("DeepMerger", bytes, MERGER_BYTES_PER_ITEM);
+    }
+
+    private static ConfigMapper mapper(String name) {
+        File file = dir.resolve(name).toFile();
+        byte[] content = document.getBytes(StandardCharsets.UTF_8);
+        return ConfigMapper.of(SyntheticConfigs.Catalog.class)
+                .file(file)
+                .load(new ByteArrayInputStream(content));
+    }
+
+    private static void assertBudget(String path, long bytes, long budgetPerItem) {
+        long perItem = bytes / ITEMS;
+        assertTrue(perItem <= budgetPerItem, () -> path + " allocated " + perItem + " bytes per item ("
+                + bytes + " total), budget is " + budgetPerItem);
+    }
+}
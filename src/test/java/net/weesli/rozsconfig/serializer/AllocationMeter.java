@@ -0,0 +1,57 @@
+package net.weesli.rozsconfig.serializer;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes the current thread allocates while running a task, using the HotSpot extension of
+ * {@link java.lang.management.ThreadMXBean}.
+ */
+final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationMeter() {}
+
+    static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Runs the task a few times to get past class loading and the first JIT tiers, then returns the smallest
+     * allocation seen over the measured runs, which is the most stable figure between machines.
+     */
+    static long minAllocatedBytes(ThrowingRunnable task, int warmups, int runs) throws Exception {
+        for (int i = 0; i < warmups; i++) task.run();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long before = allocated();
+            task.run();
+            min = Math.min(min, allocated() - before);
+        }
+        return min;
+    }
+
+    /**
+     * @return the fastest of the measured runs in nanoseconds, after the warmup runs
+     */
+    static long minNanos(ThrowingRunnable task, int warmups, int runs) throws Exception {
+        for (int i = 0; i < warmups; i++) task.run();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            task.run();
+            min = Math.min(min, System.nanoTime() - start);
+        }
+        return min;
+    }
+
+    private static long allocated() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @FunctionalInterface
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,58 @@
+package net.weesli.rozsconfig.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AtomicFilesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsPermissions() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"), "no POSIX permissions");
+        Path file = dir.resolve("config.yml");
+        Files.writeString(file, "a: 1\n");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(file, permissions);
+        AtomicFiles.write(file, "a: 2\n".getBytes());
+        assertEquals(permissions, Files.getPosixFilePermissions(file));
+        assertEquals("a: 2\n", Files.readString(file));
+    }
+
+    @Test
+    void newFileIsNotPrivate() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"), "no POSIX permissions");
+        Path file = dir.resolve("new.yml");
+        AtomicFiles.write(file, "a: 1\n".getBytes());
+        Path plain = Files.createFile(dir.resolve("plain.yml"));
+        assertEquals(Files.getPosixFilePermissions(plain), Files.getPosixFilePermissions(file));
+    }
+
+    @Test
+    void followsSymlinks() throws Exception {
+        Path real = dir.resolve("real.yml");
+        Files.writeString(real, "a: 1\n");
+        Path link;
+        try {
+            link = Files.createSymbolicLink(dir.resolve("link.yml"), real.getFileName());
+        } catch (UnsupportedOperationException | java.io.IOException e) {
+            assumeTrue(false, "symbolic links unavailable");
+            return;
+        }
+        AtomicFiles.write(link, "a: 2\n".getBytes());
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("a: 2\n", Files.readString(real));
+    }
+}
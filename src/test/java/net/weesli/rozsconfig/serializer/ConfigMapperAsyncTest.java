@@ -0,0 +1,107 @@
+package net.weesli.rozsconfig.serializer;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The {@code *Async} methods give the results of their synchronous counterparts, run every stage on the
+ * configured executor and report the same JFR events.
+ */
+class ConfigMapperAsyncTest {
+
+    private static final String DEFAULTS = "name: server\nport: 25565\n";
+
+    @TempDir
+    Path dir;
+
+    public static class Settings {
+        public String name;
+        public int port;
+    }
+
+    @Test
+    void loadAndBuildMatchSynchronousResult() {
+        AtomicInteger tasks = new AtomicInteger();
+        ConfigMapper mapper = ConfigMapper.of(Settings.class).file(dir.resolve("settings.yml").toFile()).executor(counting(tasks));
+        assertSame(mapper, mapper.loadAsync(defaults()).join());
+        Settings settings = mapper.<Settings>buildAsync().join();
+        assertEquals("server", settings.name);
+        assertEquals(25565, settings.port);
+        // two load stages, then read, parse and bind
+        assertEquals(5, tasks.get());
+    }
+
+    @Test
+    void saveThenReloadUpdatesInstanceInPlace() throws Exception {
+        ConfigMapper mapper = ConfigMapper.of(Settings.class).file(dir.resolve("settings.yml").toFile()).load(defaults());
+        Settings settings = mapper.build();
+        Settings changed = new Settings();
+        changed.name = "other";
+        changed.port = 80;
+        mapper.saveAsync(changed).join();
+        assertTrue(Files.readString(dir.resolve("settings.yml")).contains("port: 80"));
+        assertSame(settings, mapper.reloadAsync(settings).join());
+        assertEquals("other", settings.name);
+        assertEquals(80, settings.port);
+    }
+
+    @Test
+    void failuresCompleteTheFuture() throws Exception {
+        Path file = dir.resolve("settings.yml");
+        ConfigMapper mapper = ConfigMapper.of(Settings.class).file(file.toFile()).load(defaults());
+        Files.writeString(file, "port: [unclosed\n");
+        assertThrows(CompletionException.class, () -> mapper.buildAsync().join());
+    }
+
+    @Test
+    void asyncCallsEmitBuildAndSaveEvents() throws Exception {
+        ConfigMapper mapper = ConfigMapper.of(Settings.class).file(dir.resolve("settings.yml").toFile()).load(defaults());
+        Path dump = dir.resolve("async.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("net.weesli.rozsconfig.Build");
+            recording.enable("net.weesli.rozsconfig.Save");
+            recording.start();
+            Settings settings = mapper.<Settings>buildAsync().join();
+            mapper.reloadAsync(settings).join();
+            mapper.saveAsync(settings).join();
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        List<RecordedEvent> builds = events.stream().filter(e -> e.getEventType().getName().equals("net.weesli.rozsconfig.Build")).toList();
+        List<RecordedEvent> saves = events.stream().filter(e -> e.getEventType().getName().equals("net.weesli.rozsconfig.Save")).toList();
+        assertEquals(2, builds.size());
+        assertEquals(1, saves.size());
+        assertTrue(builds.get(0).getLong("bytesRead") > 0);
+        assertTrue(builds.stream().anyMatch(e -> e.getBoolean("rebind")));
+        assertTrue(saves.get(0).getLong("bytesWritten") > 0);
+    }
+
+    private static Executor counting(AtomicInteger tasks) {
+        return task -> {
+            tasks.incrementAndGet();
+            new Thread(task).start();
+        };
+    }
+
+    private static ByteArrayInputStream defaults() {
+        return new ByteArrayInputStream(DEFAULTS.getBytes(StandardCharsets.UTF_8));
+    }
+}
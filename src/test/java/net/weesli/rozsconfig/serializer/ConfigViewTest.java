@@ -0,0 +1,101 @@
+package net.weesli.rozsconfig.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigViewTest {
+
+    @TempDir
+    Path dir;
+
+    public interface Server {
+        Limits limits();
+        Names names();
+        Limits fallback();
+        default int port() {
+            return 25565;
+        }
+        default String describe(String prefix) {
+            return prefix + port();
+        }
+    }
+
+    public interface Limits {
+        int players();
+    }
+
+    public interface Names {
+        String motd();
+        List<String> aliases();
+        int players();
+    }
+
+    @Test
+    void sectionAliasedUnderTwoInterfaces() {
+        ConfigView<Server> view = view("limits: &s {players: 10, motd: hi, aliases: [a, b]}\nnames: *s\nfallback: *s\n");
+        Server server = view.get();
+        assertEquals(10, server.limits().players());
+        assertEquals("hi", server.names().motd());
+        assertEquals(List.of("a", "b"), server.names().aliases());
+        assertEquals(10, server.names().players());
+        assertEquals(10, server.fallback().players());
+        assertEquals(25565, server.port());
+    }
+
+    @Test
+    void reloadKeepsProxies() throws Exception {
+        ConfigView<Server> view = view("limits: {players: 10}\nport: 1\n");
+        Server server = view.get();
+        Limits limits = server.limits();
+        Files.writeString(dir.resolve("server.yml"), "limits: {players: 20}\nport: 2\n");
+        view.reload();
+        assertSame(limits, server.limits());
+        assertEquals(20, limits.players());
+        assertEquals(2, server.port());
+    }
+
+    @Test
+    void nestedViewFollowsEveryReload() throws Exception {
+        ConfigView<Server> view = view("limits: {players: 10}\n");
+        Limits limits = view.get().limits();
+        assertEquals(10, limits.players());
+        assertEquals(10, limits.players());
+
+        Files.writeString(dir.resolve("server.yml"), "limits: {players: 20}\n");
+        view.reload();
+        assertEquals(20, limits.players());
+
+        Files.writeString(dir.resolve("server.yml"), "limits: {players: 30}\nport: 3\n");
+        view.reload();
+        assertEquals(30, limits.players());
+        assertEquals("port 3", view.get().describe("port "));
+    }
+
+    @Test
+    void objectMethodsAreNotGetters() {
+        ConfigView<Server> view = view("limits: {players: 10}\n");
+        Limits limits = view.get().limits();
+        assertEquals("Limits{players=10}", limits.toString());
+        assertTrue(limits.equals(limits));
+        assertFalse(limits.equals(view.get()));
+        assertEquals(System.identityHashCode(limits), limits.hashCode());
+    }
+
+    private ConfigView<Server> view(String content) {
+        ConfigMapper mapper = ConfigMapper.of(Server.class)
+                .file(dir.resolve("server.yml").toFile())
+                .load(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return mapper.view();
+    }
+}
@@ -0,0 +1,79 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.annotations.Comment;
+import net.weesli.rozsconfig.format.YamlEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keys merged in from the defaults are spliced into the user's file, the rest of it stays as it was written.
+ */
+class DocumentPatcherTest {
+
+    private static final String DEFAULTS = "name: server\nitems:\n  - a\n  - b\nport: 25565\n";
+
+    @TempDir
+    Path dir;
+
+    public static class Settings {
+        public String name;
+        public List<String> items = new ArrayList<>();
+        @Comment("Port the server listens on")
+        public int port;
+    }
+
+    @Test
+    void insertsAfterPreviousSibling() {
+        List<DeepMerger.Addition> additions = List.of(new DeepMerger.Addition(List.of(), "b", 2, "a"));
+        String patched = YamlEngine.shared().apply(yaml -> DocumentPatcher.patch(yaml, "a: 1 # keep\nc: 3\n", additions, Object.class));
+        assertEquals("a: 1 # keep\nb: 2\nc: 3\n", patched);
+    }
+
+    @Test
+    void flowRootFallsBack() {
+        List<DeepMerger.Addition> additions = List.of(new DeepMerger.Addition(List.of(), "b", 2, "a"));
+        assertNull(YamlEngine.shared().apply(yaml -> DocumentPatcher.patch(yaml, "{a: 1}\n", additions, Object.class)));
+    }
+
+    @Test
+    void missingKeyKeepsComments() throws Exception {
+        File file = write("# user header\nname: mine # note\nitems:\n  - x\n");
+        load(file);
+        String content = Files.readString(file.toPath());
+        assertTrue(content.startsWith("# user header\nname: mine # note\n"), content);
+        assertTrue(content.contains("# Port the server listens on\nport: 25565\n"), content);
+    }
+
+    @Test
+    void refilledEmptyListKeepsComments() throws Exception {
+        File file = write("# user header\nname: mine # note\nitems: []\nport: 80\n");
+        Settings settings = load(file).build();
+        assertEquals(List.of("a", "b"), settings.items);
+        String content = Files.readString(file.toPath());
+        assertEquals("# user header\nname: mine # note\nitems:\n- a\n- b\nport: 80\n", content);
+    }
+
+    private File write(String content) throws Exception {
+        File file = dir.resolve("settings.yml").toFile();
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+
+    private static ConfigMapper load(File file) {
+        return ConfigMapper.of(Settings.class)
+                .file(file)
+                .load(new ByteArrayInputStream(DEFAULTS.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,119 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.ConfigFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Only fragments that changed are parsed and rebound again; a fragment is trusted by its timestamp and size
+ * alone only once it was read well after its last modification.
+ */
+class FragmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    public static class Database {
+        public String host;
+        public int port;
+    }
+
+    public static class Cache {
+        public int size;
+    }
+
+    public static class Settings {
+        public String name;
+        public Database database = new Database();
+        public Cache cache = new Cache();
+    }
+
+    @Test
+    void editedFragmentIsTheOnlyOneParsedAndRebound() throws Exception {
+        File file = dir.resolve("settings.yml").toFile();
+        Files.writeString(file.toPath(), "name: server\n");
+        Path fragments = Files.createDirectory(dir.resolve("settings.d"));
+        Files.writeString(fragments.resolve("database.yml"), "host: localhost\nport: 5432\n");
+        Files.writeString(fragments.resolve("cache.yml"), "size: 16\n");
+        ConfigMapper mapper = ConfigMapper.of(Settings.class).fragments(true).file(file).load(file);
+
+        Settings settings = mapper.build();
+        Database database = settings.database;
+        Cache cache = settings.cache;
+        // a section that is rebound gets this overwritten from its fragment, a skipped one keeps it
+        database.host = "stale";
+        cache.size = -1;
+
+        Files.writeString(fragments.resolve("database.yml"), "host: db.internal\nport: 5432\n");
+        assertSame(settings, mapper.buildInto(settings));
+        assertSame(database, settings.database);
+        assertEquals("db.internal", settings.database.host);
+        assertSame(cache, settings.cache);
+        assertEquals(-1, settings.cache.size);
+    }
+
+    @Test
+    void unchangedFragmentsComeFromTheCache() throws Exception {
+        Path fragments = Files.createDirectory(dir.resolve("settings.d"));
+        Files.writeString(fragments.resolve("database.yml"), "host: localhost\n");
+        Files.writeString(fragments.resolve("cache.yml"), "size: 16\n");
+        FragmentStore store = new FragmentStore(dir.resolve("settings.yml").toFile(), ConfigFormat.yaml());
+        List<String> parsed = new ArrayList<>();
+
+        Map<String, Map<String, Object>> first = store.read((key, tree) -> parsed.add(key));
+        assertEquals(List.of("cache", "database"), parsed);
+
+        parsed.clear();
+        Files.writeString(fragments.resolve("cache.yml"), "size: 32\n");
+        Map<String, Map<String, Object>> second = store.read((key, tree) -> parsed.add(key));
+        assertEquals(List.of("cache"), parsed);
+        assertSame(first.get("database"), second.get("database"));
+        assertEquals(32, second.get("cache").get("size"));
+    }
+
+    @Test
+    void sameSizeEditWithinTimestampGranularityIsSeen() throws Exception {
+        Path fragments = Files.createDirectory(dir.resolve("settings.d"));
+        Path fragment = fragments.resolve("cache.yml");
+        Files.writeString(fragment, "size: 16\n");
+        FileTime modified = Files.getLastModifiedTime(fragment);
+        FragmentStore store = new FragmentStore(dir.resolve("settings.yml").toFile(), ConfigFormat.yaml());
+        store.read(null);
+
+        // same size and timestamp, as a coarse clock would report for a quick second write
+        Files.writeString(fragment, "size: 32\n");
+        Files.setLastModifiedTime(fragment, modified);
+        assertEquals(32, store.read(null).get("cache").get("size"));
+    }
+
+    @Test
+    void settledFragmentIsTrustedByTimestampAndSize() throws Exception {
+        Path fragments = Files.createDirectory(dir.resolve("settings.d"));
+        Path fragment = fragments.resolve("cache.yml");
+        Files.writeString(fragment, "size: 16\n");
+        // modified long before it is read, so its timestamp can be relied on
+        FileTime modified = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        Files.setLastModifiedTime(fragment, modified);
+        FragmentStore store = new FragmentStore(dir.resolve("settings.yml").toFile(), ConfigFormat.yaml());
+        Map<String, Object> first = store.read(null).get("cache");
+
+        // content is not even read again while timestamp and size are unchanged
+        Files.writeString(fragment, "size: 32\n");
+        Files.setLastModifiedTime(fragment, modified);
+        assertSame(first, store.read(null).get("cache"));
+
+        Files.setLastModifiedTime(fragment, FileTime.fromMillis(modified.toMillis() + 1_000));
+        assertEquals(32, store.read(null).get("cache").get("size"));
+    }
+}
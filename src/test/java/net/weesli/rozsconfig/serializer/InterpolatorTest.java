@@ -0,0 +1,117 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.YamlEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InterpolatorTest {
+
+    @TempDir
+    Path dir;
+
+    public static class Database {
+        public String host = "localhost";
+        public int port = 5432;
+        public String url = "jdbc://${host}:${port}";
+        public String password = "${env:RZ_TEST_UNSET_PASSWORD:-secret}";
+    }
+
+    @Test
+    void resolvesReferencesKeepingTypes() {
+        Map<String, Object> tree = parse("host: db\nport: 5432\nurl: \"jdbc://${host}:${port}\"\ncopy: ${port}\n");
+        Map<String, Object> resolved = Interpolator.resolve(tree);
+        assertEquals("jdbc://db:5432", resolved.get("url"));
+        assertEquals(5432, resolved.get("copy"));
+        assertEquals("jdbc://${host}:${port}", tree.get("url"));
+    }
+
+    @Test
+    void treeWithoutTemplatesIsReturnedAsIs() {
+        Map<String, Object> tree = parse("a: 1\nb: [x, y]\n");
+        assertSame(tree, Interpolator.resolve(tree));
+    }
+
+    @Test
+    void escapedTemplateIsLiteral() {
+        Map<String, Object> resolved = Interpolator.resolve(parse("a: 1\nb: \"$${a} is ${a}\"\n"));
+        assertEquals("${a} is 1", resolved.get("b"));
+    }
+
+    @Test
+    void fallbacks() {
+        Map<String, Object> resolved = Interpolator.resolve(parse(
+                "a: \"${missing:-none}\"\nb: \"${env:RZ_TEST_UNSET_PORT:-6379}\"\nc: \"${a:-unused}\"\n"));
+        assertEquals("none", resolved.get("a"));
+        assertEquals("6379", resolved.get("b"));
+        assertEquals("none", resolved.get("c"));
+    }
+
+    @Test
+    void cyclicReferencesFail() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> Interpolator.resolve(parse("a: ${b}\nb: ${c}\nc: ${a}\n")));
+        assertTrue(e.getMessage().contains("Cyclic reference"), e.getMessage());
+    }
+
+    @Test
+    void unresolvedReferenceFails() {
+        assertThrows(RuntimeException.class, () -> Interpolator.resolve(parse("a: ${nope}\n")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cyclicContainersAreResolvedThroughout() {
+        // b reaches the template in a only through the cycle back to a
+        Map<String, Object> a = new LinkedHashMap<>();
+        Map<String, Object> b = new LinkedHashMap<>();
+        a.put("value", "${v}");
+        a.put("child", b);
+        b.put("back", a);
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("v", 1);
+        tree.put("a", a);
+
+        Map<String, Object> resolved = Interpolator.resolve(tree);
+        Map<String, Object> ra = (Map<String, Object>) resolved.get("a");
+        Map<String, Object> rb = (Map<String, Object>) ra.get("child");
+        assertEquals(1, ra.get("value"));
+        assertSame(ra, rb.get("back"));
+        assertEquals("${v}", a.get("value"));
+    }
+
+    @Test
+    void saveKeepsTemplates() throws Exception {
+        Path file = dir.resolve("database.yml");
+        ConfigMapper mapper = ConfigMapper.of(Database.class).interpolate(true).file(file.toFile()).load();
+        Database db = mapper.build();
+        assertEquals("jdbc://localhost:5432", db.url);
+        assertEquals("secret", db.password);
+
+        db.port = 6000;
+        mapper.save(db);
+        String content = Files.readString(file);
+        assertTrue(content.contains("${env:RZ_TEST_UNSET_PASSWORD:-secret}"), content);
+        assertTrue(content.contains("port: 6000"), content);
+        // the url was resolved with the old port, the object still holds that text
+        assertTrue(content.contains("jdbc://${host}:${port}"), content);
+        assertEquals("jdbc://localhost:6000", mapper.<Database>build().url);
+
+        db.url = "jdbc://other:1";
+        mapper.save(db);
+        assertEquals("jdbc://other:1", mapper.<Database>build().url);
+    }
+
+    private static Map<String, Object> parse(String yaml) {
+        return YamlEngine.shared().apply(engine -> engine.load(yaml));
+    }
+}
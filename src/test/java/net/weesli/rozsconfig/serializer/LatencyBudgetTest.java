@@ -0,0 +1,61 @@
+package net.weesli.rozsconfig.serializer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Wall-clock ceilings for build and save of the synthetic catalog, about 1.75 times the fastest of several runs
+ * measured when they were set (around 0.86 s each). Being machine dependent they are tagged {@code budget} and
+ * only run with {@code gradle budgetTest}, on a machine comparable to the one they were measured on.
+ */
+@Tag("budget")
+class LatencyBudgetTest {
+
+    private static final int ITEMS = 5_000;
+    private static final int WARMUPS = 3;
+    private static final int RUNS = 5;
+
+    private static final long BUILD_MILLIS = 1_500;
+    private static final long SAVE_MILLIS = 1_500;
+
+    @TempDir
+    static Path dir;
+
+    private static ConfigMapper mapper;
+
+    @BeforeAll
+    static void generate() {
+        byte[] content = SyntheticConfigs.yaml(ITEMS).getBytes(StandardCharsets.UTF_8);
+        mapper = ConfigMapper.of(SyntheticConfigs.Catalog.class)
+                .file(dir.resolve("latency.yml").toFile())
+                .load(new ByteArrayInputStream(content));
+    }
+
+    @Test
+    void build() throws Exception {
+        long nanos = AllocationMeter.minNanos(mapper::build, WARMUPS, RUNS);
+        assertCeiling("ConfigMapper.build()", nanos, BUILD_MILLIS);
+    }
+
+    @Test
+    void save() throws Exception {
+        SyntheticConfigs.Catalog catalog = SyntheticConfigs.catalog(ITEMS);
+        long nanos = AllocationMeter.minNanos(() -> mapper.save(catalog), WARMUPS, RUNS);
+        assertCeiling("ConfigMapper.save()", nanos, SAVE_MILLIS);
+    }
+
+    private static void assertCeiling(String path, long nanos, long ceilingMillis) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        assertTrue(millis <= ceilingMillis, () -> path + " took " + millis + " ms for " + ITEMS
+                + " items, ceiling is " + ceilingMillis + " ms");
+    }
+}
@@ -0,0 +1,135 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.ConfigFormat;
+import net.weesli.rozsconfig.format.YamlEngine;
+import net.weesli.rozsconfig.format.YamlFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListStreamTest {
+
+    private static final String DEFAULTS = "items:\n  - {name: default, amount: 0}\n";
+
+    @TempDir
+    Path dir;
+
+    public static class Shop {
+        public List<Item> base = new ArrayList<>();
+        public List<Item> items = new ArrayList<>();
+        public String title;
+    }
+
+    public static class Item {
+        public String name;
+        public int amount;
+    }
+
+    @Test
+    void streamsList() throws Exception {
+        assertEquals(List.of("a:1", "b:2"), names("title: shop\nitems:\n  - {name: a, amount: 1}\n  - {name: b, amount: 2}\n"));
+    }
+
+    @Test
+    void streamsAliasedList() throws Exception {
+        String content = "base: &list\n  - {name: a, amount: 1}\n  - &b {name: b, amount: 2}\nitems: *list\n";
+        assertEquals(List.of("a:1", "b:2"), names(content));
+        assertEquals(2, mapper(content).<Shop>build().items.size());
+    }
+
+    @Test
+    void elementsMayAliasEarlierAnchors() throws Exception {
+        assertEquals(List.of("b:2", "b:2"), names("base:\n  - &b {name: b, amount: 2}\nitems:\n  - *b\n  - *b\n"));
+    }
+
+    @Test
+    void missingListStreamsDefaults() throws Exception {
+        assertEquals(List.of("default:0"), names("title: shop\n"));
+    }
+
+    @Test
+    void aliasToNullStreamsLikeBuild() throws Exception {
+        String content = "none: &n ~\nitems: *n\n";
+        assertEquals(List.of(), names(content));
+        assertEquals(0, mapper(content).<Shop>build().items.size());
+    }
+
+    @Test
+    void aliasToScalarIsNotAList() throws Exception {
+        ConfigMapper mapper = mapper("title: &t shop\nitems: *t\n");
+        assertThrows(RuntimeException.class, () -> {
+            try (Stream<Item> stream = mapper.stream("items", Item.class)) {
+                stream.count();
+            }
+        });
+    }
+
+    @Test
+    void streamAndBuildRejectTheSameDocuments() throws Exception {
+        YamlEngine strict = YamlEngine.builder().maxAliasesForCollections(3).allowDuplicateKeys(false).build();
+        String valid = "items:\n  - {name: a, amount: 1}\n";
+        List<String> rejected = List.of(
+                // deeper than the nesting limit, inside an element and after the list
+                "items:\n- " + "[".repeat(200_000),
+                valid + "title: " + "[".repeat(1_000),
+                // more aliases to collections than allowed, counted before and after the list
+                "base: &b [{name: b}]\nitems:\n  - {name: a}\ntitle: [*b, *b, *b, *b]\n",
+                // duplicate keys, in an element, in the root mapping and in a skipped section
+                "items:\n  - {name: a, name: b}\n",
+                "title: x\n" + valid + "title: y\n",
+                "base: [{name: a, name: b}]\n" + valid,
+                // a second document
+                valid + "---\ntitle: x\n");
+        for (String content : rejected) {
+            ConfigMapper mapper = mapper(valid, new YamlFormat(strict));
+            Files.writeString(dir.resolve("shop.yml"), content);
+            String label = content.substring(0, Math.min(40, content.length()));
+            RuntimeException build = assertThrows(RuntimeException.class, mapper::build, label);
+            RuntimeException stream = assertThrows(RuntimeException.class, () -> {
+                try (Stream<Item> items = mapper.stream("items", Item.class)) {
+                    items.count();
+                }
+            }, label);
+            assertTrue(rootCause(build) instanceof YAMLException, () -> label + ": " + rootCause(build));
+            assertTrue(rootCause(stream) instanceof YAMLException, () -> label + ": " + rootCause(stream));
+        }
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null) e = e.getCause();
+        return e;
+    }
+
+    private List<String> names(String content) throws Exception {
+        try (Stream<Item> stream = mapper(content).stream("items", Item.class)) {
+            return stream.map(item -> item.name + ":" + item.amount).collect(Collectors.toList());
+        }
+    }
+
+    private ConfigMapper mapper(String content) throws Exception {
+        return mapper(content, ConfigFormat.yaml());
+    }
+
+    private ConfigMapper mapper(String content, ConfigFormat format) throws Exception {
+        Path file = dir.resolve("shop.yml");
+        Files.writeString(file, content);
+        // keys the file lacks are merged in on load, a stream then reads them like any other
+        return ConfigMapper.of(Shop.class)
+                .format(format)
+                .file(file.toFile())
+                .load(new ByteArrayInputStream(DEFAULTS.getBytes(StandardCharsets.UTF_8)));
+    }
+}
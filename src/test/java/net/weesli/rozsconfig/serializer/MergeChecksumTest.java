@@ -0,0 +1,147 @@
+package net.weesli.rozsconfig.serializer;
+
+import net.weesli.rozsconfig.format.ConfigFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The default merge is skipped only while the sidecar matches both the resource and the file; any change to
+ * either, or a sidecar that is gone or unreadable, merges again.
+ */
+class MergeChecksumTest {
+
+    private static final String DEFAULTS = "name: server\nport: 25565\n";
+
+    @TempDir
+    Path dir;
+
+    public static class Settings {
+        public String name;
+        public int port;
+        public boolean debug;
+    }
+
+    // counts parses: a load that merges reads the resource, the file and the merged file, a skipped one only the file
+    private static final class CountingFormat implements ConfigFormat {
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public String extension() {
+            return "yml";
+        }
+
+        @Override
+        public Map<String, Object> read(byte[] data) throws IOException {
+            reads.incrementAndGet();
+            return ConfigFormat.yaml().read(data);
+        }
+
+        @Override
+        public byte[] write(Map<String, Object> tree) throws IOException {
+            return ConfigFormat.yaml().write(tree);
+        }
+    }
+
+    @Test
+    void matchingSidecarSkipsTheMerge() throws Exception {
+        File file = file();
+        CountingFormat format = new CountingFormat();
+        // a new file is the resource itself, there is nothing to merge
+        load(file, format, DEFAULTS);
+        assertTrue(MergeChecksum.sidecarOf(file).isFile());
+        assertEquals(1, format.reads.get());
+
+        Files.writeString(file.toPath(), "name: mine\n");
+        load(file, format, DEFAULTS);
+        format.reads.set(0);
+        ConfigMapper mapper = load(file, format, DEFAULTS);
+        assertEquals(1, format.reads.get());
+        Settings settings = mapper.build();
+        assertEquals("mine", settings.name);
+        assertEquals(25565, settings.port);
+    }
+
+    @Test
+    void changedResourceMergesAgain() throws Exception {
+        File file = file();
+        CountingFormat format = new CountingFormat();
+        load(file, format, DEFAULTS);
+        format.reads.set(0);
+        load(file, format, DEFAULTS + "debug: true\n");
+        assertEquals(3, format.reads.get());
+        assertTrue(Files.readString(file.toPath()).contains("debug: true"));
+    }
+
+    @Test
+    void changedFileMergesAgain() throws Exception {
+        File file = file();
+        CountingFormat format = new CountingFormat();
+        load(file, format, DEFAULTS);
+        Files.writeString(file.toPath(), "name: mine\n");
+        format.reads.set(0);
+        ConfigMapper mapper = load(file, format, DEFAULTS);
+        assertEquals(3, format.reads.get());
+        Settings settings = mapper.build();
+        assertEquals("mine", settings.name);
+        assertEquals(25565, settings.port);
+        assertTrue(Files.readString(file.toPath()).contains("port: 25565"));
+    }
+
+    @Test
+    void missingSidecarMergesAgain() throws Exception {
+        File file = file();
+        CountingFormat format = new CountingFormat();
+        load(file, format, DEFAULTS);
+        Files.delete(MergeChecksum.sidecarOf(file).toPath());
+        format.reads.set(0);
+        load(file, format, DEFAULTS);
+        assertEquals(3, format.reads.get());
+        assertTrue(MergeChecksum.sidecarOf(file).isFile());
+    }
+
+    @Test
+    void corruptedSidecarMergesAgainAndIsReplaced() throws Exception {
+        File file = file();
+        CountingFormat format = new CountingFormat();
+        load(file, format, DEFAULTS);
+        Path sidecar = MergeChecksum.sidecarOf(file).toPath();
+        String valid = Files.readString(sidecar);
+        Files.writeString(sidecar, valid.substring(0, valid.length() / 2));
+        format.reads.set(0);
+        load(file, format, DEFAULTS);
+        assertEquals(3, format.reads.get());
+        assertEquals(valid, Files.readString(sidecar));
+    }
+
+    @Test
+    void disabledChecksumWritesNoSidecar() {
+        File file = file();
+        ConfigMapper.of(Settings.class).format(new CountingFormat()).file(file).load(defaults(DEFAULTS));
+        assertFalse(MergeChecksum.sidecarOf(file).exists());
+    }
+
+    private File file() {
+        return dir.resolve("settings.yml").toFile();
+    }
+
+    private static ConfigMapper load(File file, ConfigFormat format, String defaults) {
+        return ConfigMapper.of(Settings.class).format(format).mergeChecksum(true).file(file).load(defaults(defaults));
+    }
+
+    private static ByteArrayInputStream defaults(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
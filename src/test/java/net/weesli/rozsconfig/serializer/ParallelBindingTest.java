@@ -0,0 +1,109 @@
+package net.weesli.rozsconfig.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Containers above the parallel threshold are bound on the pool with the order and container types the
+ * sequential path gives.
+ */
+class ParallelBindingTest {
+
+    // several chunks of the minimum chunk size, so the work really is split
+    private static final int SIZE = 2_000;
+
+    @TempDir
+    Path dir;
+
+    // threads that constructed an Item, kept outside Item so the mapper never sees it
+    private static final Set<Thread> THREADS = ConcurrentHashMap.newKeySet();
+
+    public static class Item {
+        public String name;
+
+        public Item() {
+            THREADS.add(Thread.currentThread());
+        }
+    }
+
+    public static class Catalog {
+        public List<Item> items = new ArrayList<>();
+        public Deque<Item> queue = new ArrayDeque<>();
+        public Set<Item> unique = new LinkedHashSet<>();
+        public Map<String, Item> byName = new LinkedHashMap<>();
+        public TreeMap<String, Item> sorted = new TreeMap<>();
+    }
+
+    @Test
+    void parallelBindingKeepsOrderAndContainerTypes() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            THREADS.clear();
+            Catalog parallel = mapper("parallel.yml").parallelThreshold(1).forkJoinPool(pool).build();
+            assertTrue(THREADS.stream().anyMatch(t -> t instanceof ForkJoinWorkerThread), "no element was bound on the pool");
+            Catalog sequential = mapper("sequential.yml").build();
+
+            assertSame(ArrayList.class, parallel.items.getClass());
+            assertSame(ArrayDeque.class, parallel.queue.getClass());
+            assertSame(LinkedHashSet.class, parallel.unique.getClass());
+            assertSame(LinkedHashMap.class, parallel.byName.getClass());
+            assertSame(TreeMap.class, parallel.sorted.getClass());
+
+            assertEquals(names(sequential.items), names(parallel.items));
+            assertEquals(names(sequential.queue), names(parallel.queue));
+            assertEquals(names(sequential.unique), names(parallel.unique));
+            assertEquals(List.copyOf(sequential.byName.keySet()), List.copyOf(parallel.byName.keySet()));
+            assertEquals(names(sequential.byName.values()), names(parallel.byName.values()));
+            assertEquals(names(sequential.sorted.values()), names(parallel.sorted.values()));
+            // file order, which is not the keys' natural order
+            assertEquals("k" + (SIZE - 1), parallel.byName.keySet().iterator().next());
+            assertEquals("i" + (SIZE - 1), parallel.items.get(SIZE - 1).name);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ConfigMapper mapper(String name) {
+        byte[] content = document().getBytes(StandardCharsets.UTF_8);
+        return ConfigMapper.of(Catalog.class).file(dir.resolve(name).toFile()).load(new ByteArrayInputStream(content));
+    }
+
+    private static List<String> names(Iterable<Item> items) {
+        List<String> names = new ArrayList<>();
+        for (Item item : items) names.add(item.name);
+        return names;
+    }
+
+    private static String document() {
+        StringBuilder sb = new StringBuilder();
+        for (String list : List.of("items", "queue", "unique")) {
+            sb.append(list).append(":\n");
+            for (int i = 0; i < SIZE; i++) sb.append("  - name: i").append(i).append('\n');
+        }
+        for (String map : List.of("byName", "sorted")) {
+            sb.append(map).append(":\n");
+            for (int i = SIZE - 1; i >= 0; i--) sb.append("  k").append(i).append(":\n    name: v").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package net.weesli.rozsconfig.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Objects shared in the config graph are written once and aliased, values that merely look alike are not.
+ */
+class SharedReferenceTest {
+
+    @TempDir
+    Path dir;
+
+    public static class Defaults {
+        public List<String> a = List.of();
+        public List<String> b = List.of();
+        public Map<String, Integer> c = Map.of();
+        public Map<String, Integer> d = Map.of();
+        public List<String> e = List.of("x");
+        public List<String> f = e;
+    }
+
+    public static class Point {
+        public int x;
+        public List<String> tags = new ArrayList<>();
+    }
+
+    public static class Shared {
+        public Point home = new Point();
+        public Point spawn = home;
+        public List<String> names = new ArrayList<>(List.of("a"));
+        public List<String> aliases = names;
+    }
+
+    public static class Link {
+        public int x;
+        public Link next;
+    }
+
+    public static class Ring {
+        public Link head = new Link();
+
+        {
+            head.x = 1;
+            head.next = head;
+        }
+    }
+
+    @Test
+    void cyclicDefaultsLoadAndBuild() throws Exception {
+        Path file = dir.resolve("ring.yml");
+        ConfigMapper mapper = ConfigMapper.of(Ring.class).file(file.toFile()).load();
+        String content = Files.readString(file);
+        assertTrue(content.contains("&") && content.contains("*"), content);
+
+        Ring read = mapper.build();
+        assertEquals(1, read.head.x);
+        assertSame(read.head, read.head.next);
+        // the same file loaded again merges against the cyclic generated defaults
+        Ring reloaded = ConfigMapper.of(Ring.class).file(file.toFile()).load().build();
+        assertSame(reloaded.head, reloaded.head.next);
+    }
+
+    @Test
+    void emptyAndImmutableContainersAreNotAliased() throws Exception {
+        Path file = dir.resolve("defaults.yml");
+        ConfigMapper mapper = ConfigMapper.of(Defaults.class).file(file.toFile()).load();
+        mapper.save(new Defaults());
+        String content = Files.readString(file);
+        assertFalse(content.contains("&") || content.contains("*"), content);
+
+        Defaults read = mapper.build();
+        assertNotSame(read.a, read.b);
+        read.a.add("hello");
+        assertEquals(List.of(), read.b);
+        assertNotSame(read.e, read.f);
+    }
+
+    @Test
+    void sharedMutableObjectsAreAliased() throws Exception {
+        Path file = dir.resolve("shared.yml");
+        ConfigMapper mapper = ConfigMapper.of(Shared.class).file(file.toFile()).load();
+        Shared shared = new Shared();
+        shared.home.x = 4;
+        mapper.save(shared);
+        String content = Files.readString(file);
+        assertTrue(content.contains("&") && content.contains("*"), content);
+
+        Shared read = mapper.build();
+        assertEquals(4, read.spawn.x);
+        assertSame(read.home, read.spawn);
+        assertSame(read.names, read.aliases);
+    }
+}
@@ -0,0 +1,110 @@
+package net.weesli.rozsconfig.serializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Large generated config shapes used by the regression budgets: a catalog of items that are listed once and
+ * indexed once more by id, with nested sections, string lists and scalar fields of every common type.
+ */
+final class SyntheticConfigs {
+
+    private SyntheticConfigs() {}
+
+    public static class Catalog {
+        public String name = "catalog";
+        public int version = 1;
+        public Settings settings = new Settings();
+        public List<Item> items = new ArrayList<>();
+        public Map<String, Item> byId = new LinkedHashMap<>();
+        public Map<String, List<String>> tags = new LinkedHashMap<>();
+    }
+
+    public static class Settings {
+        public boolean enabled = true;
+        public double ratio = 0.5;
+        public long seed = 42;
+        public String mode = "fast";
+    }
+
+    public static class Item {
+        public String id;
+        public String display;
+        public int amount;
+        public double price;
+        public boolean tradeable;
+        public List<String> lore = new ArrayList<>();
+        public Settings settings = new Settings();
+    }
+
+    static Catalog catalog(int items) {
+        Catalog catalog = new Catalog();
+        for (int i = 0; i < items; i++) {
+            Item item = item(i);
+            catalog.items.add(item);
+            catalog.byId.put(item.id, item(i));
+        }
+        for (int i = 0; i < items / 10; i++) {
+            catalog.tags.put("tag-" + i, List.of("a-" + i, "b-" + i, "c-" + i));
+        }
+        return catalog;
+    }
+
+    private static Item item(int i) {
+        Item item = new Item();
+        item.id = "item-" + i;
+        item.display = "Item number " + i;
+        item.amount = i % 64;
+        item.price = i * 1.25;
+        item.tradeable = (i & 1) == 0;
+        item.lore.add("First line of " + i);
+        item.lore.add("Second line of " + i);
+        item.settings.seed = i;
+        return item;
+    }
+
+    /**
+     * Writes the same shape as {@link #catalog(int)} by hand, so the read side is measured against a document
+     * that does not depend on the writer under test.
+     */
+    static String yaml(int items) {
+        StringBuilder sb = new StringBuilder(items * 256);
+        sb.append("name: catalog\nversion: 1\nsettings:\n");
+        settings(sb, "  ", 42);
+        sb.append("items:\n");
+        for (int i = 0; i < items; i++) item(sb, "- ", "  ", i);
+        sb.append("byId:\n");
+        for (int i = 0; i < items; i++) {
+            sb.append("  item-").append(i).append(":\n");
+            item(sb, "    ", "    ", i);
+        }
+        sb.append("tags:\n");
+        for (int i = 0; i < items / 10; i++) {
+            sb.append("  tag-").append(i).append(":\n");
+            sb.append("  - a-").append(i).append("\n  - b-").append(i).append("\n  - c-").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void item(StringBuilder sb, String first, String indent, int i) {
+        sb.append(first).append("id: item-").append(i).append('\n');
+        sb.append(indent).append("display: Item number ").append(i).append('\n');
+        sb.append(indent).append("amount: ").append(i % 64).append('\n');
+        sb.append(indent).append("price: ").append(i * 1.25).append('\n');
+        sb.append(indent).append("tradeable: ").append((i & 1) == 0).append('\n');
+        sb.append(indent).append("lore:\n");
+        sb.append(indent).append("- First line of ").append(i).append('\n');
+        sb.append(indent).append("- Second line of ").append(i).append('\n');
+        sb.append(indent).append("settings:\n");
+        settings(sb, indent + "  ", i);
+    }
+
+    private static void settings(StringBuilder sb, String indent, long seed) {
+        sb.append(indent).append("enabled: true\n");
+        sb.append(indent).append("ratio: 0.5\n");
+        sb.append(indent).append("seed: ").append(seed).append('\n');
+        sb.append(indent).append("mode: fast\n");
+    }
+}